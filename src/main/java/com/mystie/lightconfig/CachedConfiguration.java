@@ -0,0 +1,378 @@
+package com.mystie.lightconfig;
+
+import javafx.util.Pair;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Configuration serving variables from a bounded cache in front of another
+ * configuration, typically one whose lookups are expensive such as a remote
+ * store.<br>
+ * Variables are kept in the cache for a limited time and the least recently
+ * used ones are evicted when the cache is full. A variable looked up after
+ * its refresh delay but before its expiry is returned from the cache while it
+ * is reloaded in the background. Concurrent lookups of a variable which is not
+ * cached result in a single lookup in the backing configuration.<br>
+ * Only {@link #getVar(String)} goes through the cache; the other methods are
+ * delegated to the backing configuration, invalidating the cache when they
+ * may change its variables.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class CachedConfiguration implements Configuration {
+    private final Configuration backing;
+    private final long ttlNanos;
+    private final long refreshNanos;
+    private final Executor refresher;
+    private final LongSupplier clock;
+    private final Map<String, CachedVar> cache;
+    private final ConcurrentMap<String, CompletableFuture<ConfigVariable>>
+            loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * @param backing configuration from which variables are loaded
+     * @param maxSize maximum number of cached variables
+     * @param ttl time for which a variable is cached
+     * @param refreshAfter time after which a cached variable is reloaded in
+     *                     the background when looked up, no reload if not
+     *                     lower than the ttl
+     * @param unit unit of the times
+     * @param refresher executor on which variables are reloaded
+     * @throws IllegalArgumentException if the size or a time is not positive
+     */
+    public CachedConfiguration(Configuration backing, int maxSize, long ttl,
+                               long refreshAfter, TimeUnit unit,
+                               Executor refresher)
+            throws IllegalArgumentException {
+        this(backing, maxSize, unit.toNanos(ttl), unit.toNanos(refreshAfter),
+                refresher, System::nanoTime);
+    }
+
+    /**
+     * Constructor for a cache without background reloading
+     *
+     * @param backing configuration from which variables are loaded
+     * @param maxSize maximum number of cached variables
+     * @param ttl time for which a variable is cached
+     * @param unit unit of the time
+     * @throws IllegalArgumentException if the size or the time is not
+     * positive
+     */
+    public CachedConfiguration(Configuration backing, int maxSize, long ttl,
+                               TimeUnit unit)
+            throws IllegalArgumentException {
+        this(backing, maxSize, ttl, ttl, unit, ForkJoinPool.commonPool());
+    }
+
+    CachedConfiguration(Configuration backing, int maxSize, long ttlNanos,
+                        long refreshNanos, Executor refresher,
+                        LongSupplier clock)
+            throws IllegalArgumentException {
+        if(maxSize < 1 || ttlNanos <= 0 || refreshNanos <= 0)
+            throw new IllegalArgumentException(
+                    "Cache size and times must be positive!");
+        this.backing = backing;
+        this.ttlNanos = ttlNanos;
+        this.refreshNanos = refreshNanos;
+        this.refresher = refresher;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<String, CachedVar>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, CachedVar> e) {
+                if(size() <= maxSize)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return configuration from which variables are loaded
+     */
+    public Configuration getBacking() {
+        return backing;
+    }
+
+    @Override
+    public Configurable<?> getOwner() {
+        return backing.getOwner();
+    }
+
+    @Override
+    public void addVar(String key, ConfigVariable val) {
+        backing.addVar(key, val);
+        invalidate(key);
+    }
+
+    @Override
+    public ConfigVariable removeVar(String key) {
+        ConfigVariable cv = backing.removeVar(key);
+        invalidate(key);
+        return cv;
+    }
+
+    @Override
+    public ConfigVariable getVar(String key) {
+        CachedVar e;
+        synchronized(cache) {
+            e = cache.get(key);
+        }
+        if(e != null) {
+            long age = clock.getAsLong() - e.loadedAt;
+            if(age < ttlNanos) {
+                hits.increment();
+                if(age >= refreshNanos)
+                    refresh(key);
+                return e.var;
+            }
+            synchronized(cache) {
+                cache.remove(key, e);
+            }
+        }
+        misses.increment();
+        return load(key);
+    }
+
+    @Override
+    public Collection<ConfigVariable> getVars() {
+        return backing.getVars();
+    }
+
+    @Override
+    public Set<String> getKeys() {
+        return backing.getKeys();
+    }
+
+    @Override
+    public boolean copyFrom(Configuration oConfig) {
+        boolean success = backing.copyFrom(oConfig);
+        invalidateAll();
+        return success;
+    }
+
+    @Override
+    public void resetObservers() {
+        backing.resetObservers();
+    }
+
+    @Override
+    public void observeAll(Observer obs) {
+        backing.observeAll(obs);
+    }
+
+    @Override
+    public Collection<Pair<Class, String>> getOmissions() {
+        return backing.getOmissions();
+    }
+
+    @Override
+    public boolean save() {
+        return backing.save();
+    }
+
+    @Override
+    public boolean load() {
+        boolean success = backing.load();
+        invalidateAll();
+        return success;
+    }
+
+    @Override
+    public boolean delete() {
+        return backing.delete();
+    }
+
+    /**
+     * Remove a variable from the cache, so that it is loaded again on its
+     * next lookup.
+     *
+     * @param key key of the variable
+     */
+    public void invalidate(String key) {
+        synchronized(cache) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Remove all the variables from the cache.
+     */
+    public void invalidateAll() {
+        synchronized(cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return number of cached variables, including expired ones not yet
+     * removed
+     */
+    public int size() {
+        synchronized(cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * @return statistics of the cache since its creation
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(),
+                refreshes.sum());
+    }
+
+    /**
+     * Load a variable, waiting for the lookup already in progress if any. If
+     * that lookup was a reload which could not be started, the variable is
+     * looked up again.
+     */
+    private ConfigVariable load(String key) {
+        CompletableFuture<ConfigVariable> f = new CompletableFuture<>();
+        CompletableFuture<ConfigVariable> current;
+        while((current = loading.putIfAbsent(key, f)) != null) {
+            try {
+                return current.join();
+            } catch(CompletionException e) {
+                if(e.getCause() instanceof RejectedExecutionException)
+                    continue;
+                if(e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+
+        try {
+            ConfigVariable cv = fetch(key);
+            f.complete(cv);
+            return cv;
+        } catch(RuntimeException e) {
+            f.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, f);
+        }
+    }
+
+    /**
+     * Reload a variable in the background, unless a lookup is in progress
+     */
+    private void refresh(String key) {
+        CompletableFuture<ConfigVariable> f = new CompletableFuture<>();
+        if(loading.putIfAbsent(key, f) != null)
+            return;
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    f.complete(fetch(key));
+                } catch(RuntimeException e) {
+                    e.printStackTrace();
+                    f.completeExceptionally(e);
+                } finally {
+                    loading.remove(key, f);
+                }
+            });
+            refreshes.increment();
+        } catch(RejectedExecutionException e) {
+            loading.remove(key, f);
+            f.completeExceptionally(e);
+        }
+    }
+
+    private ConfigVariable fetch(String key) {
+        ConfigVariable cv = backing.getVar(key);
+        CachedVar e = cv == null ? null : new CachedVar(cv, clock.getAsLong());
+        synchronized(cache) {
+            if(e == null)
+                cache.remove(key);
+            else
+                cache.put(key, e);
+        }
+        return cv;
+    }
+
+    /**
+     * Cached variable along with the time at which it was loaded
+     */
+    private static final class CachedVar {
+        private final ConfigVariable var;
+        private final long loadedAt;
+
+        CachedVar(ConfigVariable var, long loadedAt) {
+            this.var = var;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Statistics of a cache
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long refreshes;
+
+        Stats(long hits, long misses, long evictions, long refreshes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.refreshes = refreshes;
+        }
+
+        /**
+         * @return number of lookups served from the cache
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return number of lookups of variables which were not cached or
+         * had expired
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return number of variables evicted because the cache was full
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return number of background reloads started
+         */
+        public long getRefreshes() {
+            return refreshes;
+        }
+
+        /**
+         * @return ratio of lookups served from the cache, 0 if none
+         */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, evictions=%d, " +
+                    "refreshes=%d", hits, misses, evictions, refreshes);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.mystie.lightconfig;
+
+import java.util.*;
+
+/**
+ * Set of field writes on a configurable instance which are applied together.
+ * <br>
+ * Writes are buffered until {@link #commit(boolean)} is called. They are then
+ * validated, applied to the fields of the owner and pushed to the
+ * configuration variables, after which each observer of the changed variables
+ * is notified once with the set of changed keys as argument, even if it
+ * observes several of them such as an observer added through
+ * {@link Configuration#observeAll(Observer)}. The observable passed to the
+ * observer is the first changed variable it observes. If any write is
+ * invalid or the configuration cannot be saved, the fields are left with or
+ * restored to their previous values and no observer is notified.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ * @see Configurable#batch(java.util.function.Consumer)
+ */
+public class ConfigBatch {
+    private final Configurable<?> owner;
+    private final Map<String, Object> writes = new LinkedHashMap<>();
+    private boolean done;
+
+    ConfigBatch(Configurable<?> owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Buffer the write of a field. Writing the same field more than once only
+     * keeps the last value.
+     *
+     * @param varStr name of the field to be set
+     * @param val value to be set
+     * @return this batch
+     * @throws IllegalStateException if the batch was already committed or
+     * rolled back
+     */
+    public ConfigBatch set(String varStr, Object val)
+            throws IllegalStateException {
+        checkPending();
+        writes.put(varStr, val);
+        return this;
+    }
+
+    /**
+     * Discard the buffered writes.
+     */
+    public void rollback() {
+        writes.clear();
+        done = true;
+    }
+
+    /**
+     * Apply the buffered writes.
+     *
+     * @param save true to save the configuration once the writes are applied
+     * @return true if all the writes were applied (and saved if requested),
+     * false if the batch failed and nothing was changed
+     * @throws IllegalStateException if the batch was already committed or
+     * rolled back
+     */
+    public boolean commit(boolean save) throws IllegalStateException {
+        checkPending();
+        done = true;
+
+        Configuration cfg = owner.getConfiguration();
+        ConfigTemplate tpl = ConfigTemplate.of(owner.getClass());
+        int n = writes.size();
+        ConfigTemplate.Slot[] slots = new ConfigTemplate.Slot[n];
+        ConfigVariable[] vars = new ConfigVariable[n];
+        Object[] values = new Object[n];
+
+        // Validate all the writes before touching any field
+        int i = 0;
+        for(Map.Entry<String, Object> w : writes.entrySet()) {
+            slots[i] = tpl.getSlot(w.getKey());
+            values[i] = w.getValue();
+            if(slots[i] == null || !slots[i].accepts(values[i]))
+                return false;
+            vars[i] = cfg.getVar(slots[i]);
+            if(vars[i] == null)
+                return false;
+            ++i;
+        }
+
+        Object[] old = new Object[n];
+        for(i = 0; i < n; ++i)
+            old[i] = slots[i].get(owner);
+        try {
+            for(i = 0; i < n; ++i)
+                slots[i].set(owner, values[i]);
+        } catch(IllegalAccessException e) {
+            e.printStackTrace();
+            restore(slots, old, i);
+            return false;
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        for(i = 0; i < n; ++i) {
+            if(vars[i].update())
+                changed.add(slots[i].getKey());
+        }
+
+        if(save && !changed.isEmpty() && !cfg.save()) {
+            restore(slots, old, n);
+            for(i = 0; i < n; ++i) {
+                vars[i].update();
+                vars[i].discardChange();
+            }
+            return false;
+        }
+
+        // Notify each observer once, through the first changed variable it
+        // observes
+        Set<Observer> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Observer> observers = new ArrayList<>();
+        List<ConfigVariable> sources = new ArrayList<>();
+        for(i = 0; i < n; ++i) {
+            if(!changed.contains(slots[i].getKey())) continue;
+            vars[i].discardChange();
+            for(Observer o : vars[i].getObservers()) {
+                if(seen.add(o)) {
+                    observers.add(o);
+                    sources.add(vars[i]);
+                }
+            }
+        }
+
+        Set<String> arg = Collections.unmodifiableSet(changed);
+        for(i = 0; i < observers.size(); ++i)
+            observers.get(i).update(sources.get(i), arg);
+        return true;
+    }
+
+    /**
+     * Apply the buffered writes without saving.
+     *
+     * @return true if all the writes were applied, false otherwise
+     * @see #commit(boolean)
+     */
+    public boolean commit() {
+        return commit(false);
+    }
+
+    private void restore(ConfigTemplate.Slot[] slots, Object[] old, int n) {
+        for(int i = 0; i < n; ++i) {
+            try {
+                slots[i].set(owner, old[i]);
+            } catch(IllegalAccessException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void checkPending() throws IllegalStateException {
+        if(done)
+            throw new IllegalStateException(
+                    "Batch was already committed or rolled back!");
+    }
+}
@@ -0,0 +1,250 @@
+package com.mystie.lightconfig;
+
+import java.util.*;
+
+/**
+ * Bounded history of the values of a configuration, allowing to find which
+ * variables changed between two versions and to roll back to a previous one.
+ * <br>
+ * A version is a snapshot of the values of all the variables, stored in
+ * chunks of {@value #CHUNK_SIZE} values. Recording a version only copies the
+ * chunks holding changed values and shares the other ones with the previous
+ * version, so that keeping many versions of a configuration where few values
+ * change costs little memory. For the same reason, comparing two versions
+ * only looks at the chunks which are not shared.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigHistory {
+    /** Number of values held by a chunk */
+    public static final int CHUNK_SIZE = 32;
+    private static final int CHUNK_BITS = 5;
+
+    private final Configuration cfg;
+    private final int capacity;
+    private final String[] keys;
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final Deque<Version> versions = new ArrayDeque<>();
+    private long nextId = 1;
+
+    /**
+     * Constructor for a history of the current variables of a configuration,
+     * starting with a version holding their current values.
+     *
+     * @param cfg configuration whose values are recorded
+     * @param capacity maximum number of versions kept, the oldest ones being
+     *                 discarded first
+     * @throws IllegalArgumentException if the capacity is lower than 1
+     */
+    public ConfigHistory(Configuration cfg, int capacity)
+            throws IllegalArgumentException {
+        if(capacity < 1)
+            throw new IllegalArgumentException(
+                    "History must keep at least one version!");
+        this.cfg = cfg;
+        this.capacity = capacity;
+        this.keys = cfg.getKeys().toArray(new String[0]);
+        for(int i = 0; i < keys.length; ++i)
+            indices.put(keys[i], i);
+        record();
+    }
+
+    /**
+     * Record the current values of the variables as a new version, unless
+     * they are the same as in the latest version.
+     *
+     * @return identifier of the version holding the current values
+     */
+    public synchronized long record() {
+        Version last = versions.peekLast();
+        int nbChunks = (keys.length + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        Object[][] chunks = last == null ? new Object[nbChunks][]
+                                         : last.chunks.clone();
+        boolean changed = last == null;
+        for(int c = 0; c < nbChunks; ++c) {
+            Object[] chunk = chunks[c];
+            int base = c << CHUNK_BITS;
+            int len = Math.min(CHUNK_SIZE, keys.length - base);
+            for(int i = 0; i < len; ++i) {
+                ConfigVariable cv = cfg.getVar(keys[base + i]);
+                Object val = cv == null ? null : cv.getValue();
+                if(chunk == null || !Objects.equals(chunk[i], val)) {
+                    if(chunk == null) {
+                        chunk = new Object[len];
+                    } else if(last != null && chunk == last.chunks[c]) {
+                        chunk = chunk.clone();
+                    }
+                    chunk[i] = val;
+                    chunks[c] = chunk;
+                    changed = true;
+                }
+            }
+        }
+        if(!changed)
+            return last.id;
+
+        versions.addLast(new Version(nextId++, chunks));
+        if(versions.size() > capacity)
+            versions.removeFirst();
+        return versions.getLast().id;
+    }
+
+    /**
+     * Discard all the versions and start again with a version holding the
+     * current values, as when the configuration is bound to another owner.
+     *
+     * @return identifier of the version holding the current values
+     */
+    public synchronized long clear() {
+        versions.clear();
+        return record();
+    }
+
+    /**
+     * @return identifiers of the versions kept, oldest first
+     */
+    public synchronized List<Long> getVersions() {
+        List<Long> ids = new ArrayList<>(versions.size());
+        for(Version v : versions)
+            ids.add(v.id);
+        return ids;
+    }
+
+    /**
+     * @return identifier of the latest version
+     */
+    public synchronized long getLatestVersion() {
+        return versions.getLast().id;
+    }
+
+    /**
+     * @param version identifier of a version
+     * @param key key of the variable
+     * @return value of the variable in the version, null if the key was not
+     * a variable of the configuration when the history was created
+     * @throws IllegalArgumentException if the version is not kept
+     */
+    public synchronized Object getValue(long version, String key)
+            throws IllegalArgumentException {
+        Version v = find(version);
+        Integer i = indices.get(key);
+        return i == null ? null : v.get(i);
+    }
+
+    /**
+     * Find the variables whose value differs between two versions.
+     *
+     * @param from identifier of the version to compare from
+     * @param to identifier of the version to compare to
+     * @return values in the version compared to, by key of the variables
+     * which differ
+     * @throws IllegalArgumentException if a version is not kept
+     */
+    public synchronized Map<String, Object> diff(long from, long to)
+            throws IllegalArgumentException {
+        return diff(find(from), find(to));
+    }
+
+    private Map<String, Object> diff(Version a, Version b) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for(int c = 0; c < a.chunks.length; ++c) {
+            Object[] ca = a.chunks[c];
+            Object[] cb = b.chunks[c];
+            if(ca == cb) continue;
+
+            int base = c << CHUNK_BITS;
+            for(int i = 0; i < cb.length; ++i) {
+                if(!Objects.equals(ca[i], cb[i]))
+                    changes.put(keys[base + i], cb[i]);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Set the variables whose value differs from a previous version back to
+     * the value they had in that version, as a single batch on the owner of
+     * the configuration. The current values are recorded beforehand and the
+     * restored values are recorded as a new version, which may discard the
+     * version rolled back to if it was the oldest one kept.
+     *
+     * @param version identifier of the version to roll back to
+     * @return true if the values were restored, false otherwise
+     * @throws IllegalArgumentException if the version is not kept
+     * @see Configurable#batch(java.util.function.Consumer)
+     */
+    public synchronized boolean rollback(long version)
+            throws IllegalArgumentException {
+        Version target = find(version);
+        Configurable<?> owner = cfg.getOwner();
+        if(owner == null) return false;
+
+        record();
+        Map<String, Object> changes = diff(versions.getLast(), target);
+        if(changes.isEmpty()) return true;
+        boolean success = owner.batch(b -> {
+            for(Map.Entry<String, Object> e : changes.entrySet())
+                b.set(e.getKey(), e.getValue());
+        });
+        if(success)
+            record();
+        return success;
+    }
+
+    /**
+     * @return number of distinct chunks held by the versions kept
+     */
+    public synchronized int getRetainedChunks() {
+        Set<Object[]> chunks = Collections.newSetFromMap(
+                new IdentityHashMap<>());
+        for(Version v : versions)
+            chunks.addAll(Arrays.asList(v.chunks));
+        return chunks.size();
+    }
+
+    /**
+     * @return number of value references held by the versions kept, counting
+     * shared chunks once and including the chunk table of each version
+     */
+    public synchronized long getRetainedSlots() {
+        Set<Object[]> chunks = Collections.newSetFromMap(
+                new IdentityHashMap<>());
+        long slots = 0;
+        for(Version v : versions) {
+            slots += v.chunks.length;
+            for(Object[] chunk : v.chunks) {
+                if(chunks.add(chunk))
+                    slots += chunk.length;
+            }
+        }
+        return slots;
+    }
+
+    private Version find(long version) throws IllegalArgumentException {
+        for(Version v : versions) {
+            if(v.id == version)
+                return v;
+        }
+        throw new IllegalArgumentException(
+                "Version " + version + " is not kept in the history!");
+    }
+
+    /**
+     * Snapshot of the values of the variables
+     */
+    private static final class Version {
+        private final long id;
+        private final Object[][] chunks;
+
+        Version(long id, Object[][] chunks) {
+            this.id = id;
+            this.chunks = chunks;
+        }
+
+        Object get(int i) {
+            return chunks[i >>> CHUNK_BITS][i & (CHUNK_SIZE - 1)];
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Per-class description of the fields annotated with {@link Config}, computed
+ * once and shared by all the configurations built for instances of the class.
+ * <br>
+ * The constraints, default value and converter declared by the annotation of
+ * each field are compiled along with the template, so that validating a value
+ * does not require any reflection.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ConfigTemplate {
+    private static final Map<Class<?>, ConfigTemplate> templates =
+            new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+    private final List<Slot> slots;
+    private final Map<String, Slot> slotsByKey;
+
+    /**
+     * Get the template of a class, building and caching it on first use.
+     *
+     * @param cls class declaring configuration fields
+     * @return template of the class
+     * @throws IllegalArgumentException if the annotation of a field declares
+     * an invalid pattern, converter or default value
+     */
+    public static ConfigTemplate of(Class<?> cls)
+            throws IllegalArgumentException {
+        ConfigTemplate tpl = templates.get(cls);
+        return tpl != null ? tpl
+                           : templates.computeIfAbsent(cls, ConfigTemplate::new);
+    }
+
+    private ConfigTemplate(Class<?> cls) {
+        this.type = cls;
+        List<Slot> lst = new ArrayList<>();
+        Map<String, Slot> map = new HashMap<>();
+        for(Field f : cls.getDeclaredFields()) {
+            if(f.isAnnotationPresent(Config.class)) {
+                f.setAccessible(true);
+                Slot s = new Slot(lst.size(), f, f.getAnnotation(Config.class));
+                lst.add(s);
+                map.put(s.getKey(), s);
+            }
+        }
+        this.slots = Collections.unmodifiableList(lst);
+        this.slotsByKey = map;
+    }
+
+    /**
+     * @return class described by the template
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return slots of the template, in declaration order
+     */
+    public List<Slot> getSlots() {
+        return slots;
+    }
+
+    /**
+     * @param key name of the annotated field
+     * @return slot bound to the key, null if the key is not found
+     */
+    public Slot getSlot(String key) {
+        return slotsByKey.get(key);
+    }
+
+    /**
+     * Annotated field of a configurable class along with its key, label and
+     * compiled constraints.
+     */
+    public static final class Slot {
+        private final int index;
+        private final Field field;
+        private final String key;
+        private final String label;
+        private final Class<?> valueType;
+        private final double min;
+        private final double max;
+        private final Pattern pattern;
+        private final ValueConverter<Object> converter;
+        private final boolean hasDefault;
+        private final Object defaultValue;
+
+        @SuppressWarnings("unchecked")
+        private Slot(int index, Field field, Config an)
+                throws IllegalArgumentException {
+            this.index = index;
+            this.field = field;
+            this.key = field.getName().intern();
+            this.label = an.value().isEmpty() ? key : an.value();
+            this.valueType = boxed(field.getType());
+            this.min = an.min();
+            this.max = an.max();
+            try {
+                this.pattern = an.pattern().isEmpty() ?
+                        null : Pattern.compile(an.pattern());
+            } catch(PatternSyntaxException e) {
+                throw new IllegalArgumentException(
+                        "Invalid pattern for " + describe() + "!", e);
+            }
+
+            if(an.converter() == ValueConverter.class) {
+                this.converter = null;
+            } else {
+                try {
+                    this.converter = an.converter().newInstance();
+                } catch(InstantiationException | IllegalAccessException e) {
+                    throw new IllegalArgumentException(
+                            "Cannot instantiate the converter of " +
+                            describe() + "!", e);
+                }
+            }
+
+            this.hasDefault = !an.defaultValue().isEmpty();
+            this.defaultValue = hasDefault ? fromString(an.defaultValue())
+                                           : null;
+            if(hasDefault && (defaultValue == null || !accepts(defaultValue)))
+                throw new IllegalArgumentException(
+                        "Invalid default value for " + describe() + "!");
+        }
+
+        /**
+         * @return position of the slot in its template
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return annotated field, already made accessible
+         */
+        public Field getField() {
+            return field;
+        }
+
+        /**
+         * @return key of the variable, which is the interned field name
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return label of the variable
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @param val value to be set
+         * @return true if the value can be assigned to the field and respects
+         * its constraints, false otherwise
+         */
+        public boolean accepts(Object val) {
+            if(val == null)
+                return !field.getType().isPrimitive();
+            if(!valueType.isInstance(val))
+                return false;
+            if(val instanceof Number) {
+                double d = ((Number) val).doubleValue();
+                if(d < min || d > max)
+                    return false;
+            }
+            return pattern == null || !(val instanceof CharSequence) ||
+                    pattern.matcher((CharSequence) val).matches();
+        }
+
+        /**
+         * @return true if the annotation declares a default value
+         */
+        public boolean hasDefault() {
+            return hasDefault;
+        }
+
+        /**
+         * @return default value, null if none is declared
+         */
+        public Object getDefault() {
+            return defaultValue;
+        }
+
+        /**
+         * @return true if the annotation declares a converter
+         */
+        public boolean hasConverter() {
+            return converter != null;
+        }
+
+        /**
+         * @param str textual representation of a value
+         * @return converted value, null if the text cannot be converted
+         */
+        public Object fromString(String str) {
+            if(str == null) return null;
+            if(converter == null)
+                return Values.fromString(field.getType(), str);
+            try {
+                return converter.fromString(str);
+            } catch(IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @param val value to be represented
+         * @return textual representation of the value, null for a null value
+         */
+        public String toString(Object val) {
+            if(val == null) return null;
+            return converter == null ? Values.toString(val)
+                                     : converter.toString(val);
+        }
+
+        /**
+         * @param owner instance to read the field from
+         * @return value of the field, null if it cannot be accessed
+         */
+        public Object get(Object owner) {
+            try {
+                return field.get(owner);
+            } catch(IllegalAccessException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+
+        /**
+         * @param owner instance to write the field to
+         * @param val value to be set
+         * @throws IllegalAccessException if the field cannot be written
+         */
+        public void set(Object owner, Object val)
+                throws IllegalAccessException {
+            field.set(owner, val);
+        }
+
+        private String describe() {
+            return field.getDeclaringClass().getName() + "." + field.getName();
+        }
+    }
+
+    /**
+     * @param type type of a field
+     * @return wrapper type for a primitive type, the type itself otherwise
+     */
+    private static Class<?> boxed(Class<?> type) {
+        if(!type.isPrimitive()) return type;
+        if(type == int.class) return Integer.class;
+        if(type == long.class) return Long.class;
+        if(type == double.class) return Double.class;
+        if(type == float.class) return Float.class;
+        if(type == boolean.class) return Boolean.class;
+        if(type == char.class) return Character.class;
+        if(type == short.class) return Short.class;
+        if(type == byte.class) return Byte.class;
+        return Void.class;
+    }
+}
@@ -1,6 +1,10 @@
 package com.mystie.lightconfig;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Observable;
+import java.util.Observer;
 import java.util.function.Supplier;
 
 /**
@@ -16,6 +20,7 @@ public class ConfigVariable extends Observable
 	private final String label;
 	private Supplier<Object> supplier;
     private Object value;
+    private transient List<Observer> observers;
 
 	/**
 	 * Construct a configuration variable
@@ -30,7 +35,7 @@ public class ConfigVariable extends Observable
         this.type = type;
 		this.label = label;
         this.supplier = supplier;
-        update();
+        this.value = supplier.get();
 	}
 
 	/**
@@ -62,10 +67,58 @@ public class ConfigVariable extends Observable
     }
 
     /**
-     * Update the value of the referenced object value using the supplier
+     * Update the value of the referenced object value using the supplier.
+     * If the value changed, the variable is marked as changed so that its
+     * observers are notified on the next call to {@link #notifyObservers()}.
+     *
+     * @return true if the value changed, false otherwise
      */
-    public void update() {
+    public boolean update() {
+        Object old = value;
         value = supplier.get();
+        if(Objects.equals(old, value))
+            return false;
+        setChanged();
+        return true;
+    }
+
+    /**
+     * Forget a change detected by {@link #update()} so that observers are
+     * not notified of it, as when the value is set from a file rather than
+     * changed by the owner.
+     */
+    public void discardChange() {
+        clearChanged();
+    }
+
+    @Override
+    public synchronized void addObserver(Observer o) {
+        super.addObserver(o);
+        if(observers == null)
+            observers = new ArrayList<>();
+        if(!observers.contains(o))
+            observers.add(o);
+    }
+
+    @Override
+    public synchronized void deleteObserver(Observer o) {
+        super.deleteObserver(o);
+        if(observers != null)
+            observers.remove(o);
+    }
+
+    @Override
+    public synchronized void deleteObservers() {
+        super.deleteObservers();
+        observers = null;
+    }
+
+    /**
+     * @return observers of the variable, in the order they were added
+     */
+    synchronized List<Observer> getObservers() {
+        return observers == null ? new ArrayList<>()
+                                 : new ArrayList<>(observers);
     }
 
     /**
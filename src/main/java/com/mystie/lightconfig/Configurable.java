@@ -3,9 +3,10 @@ package com.mystie.lightconfig;
 import com.mystie.lightconfig.annotation.Config;
 import javafx.util.Pair;
 
-import java.lang.reflect.Field;
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Vector;
+import java.util.function.Consumer;
 
 /**
  * Interface for specifying means of managing configured variables from a known
@@ -30,31 +31,76 @@ public interface Configurable<T extends Configuration> {
 
     /**
      * Generic setter for a field which allows to update the linked
-     * {@link ConfigVariable}'s value.
+     * {@link ConfigVariable}'s value. The value must be of the type of the
+     * field and respect the constraints declared by its {@link Config}
+     * annotation.
      *
      * @param varStr name of the field to be set
      * @param val value to be set
      * @return true if the set operation succeeded, false otherwise
      */
     default boolean setAndUpdate(String varStr, Object val) {
+        ConfigTemplate.Slot s = ConfigTemplate.of(getClass()).getSlot(varStr);
+        if(s == null || !s.accepts(val)) return false;
         try {
-            Field f = getClass().getField(varStr);
-            Object curVal = f.get(this);
-            if(curVal.getClass().isAssignableFrom(val.getClass())) {
-                if(curVal.equals(val)) return true;
-                f.set(this, val);
-                ConfigVariable cv = getConfiguration().getVar(varStr);
-                assert(cv != null);
-                cv.update();
-                cv.notifyObservers();
-                return true;
-            }
-        } catch(IllegalAccessException | NoSuchFieldException e) {
+            if(Objects.equals(s.get(this), val)) return true;
+            s.set(this, val);
+            ConfigVariable cv = getConfiguration().getVar(s);
+            assert(cv != null);
+            cv.update();
+            cv.notifyObservers();
+            return true;
+        } catch(IllegalAccessException e) {
             e.printStackTrace();
         }
         return false;
     }
 
+    /**
+     * Start a batch of field writes to be applied together, see
+     * {@link ConfigBatch}.
+     *
+     * @return new batch bound to this instance
+     */
+    default ConfigBatch beginBatch() {
+        return new ConfigBatch(this);
+    }
+
+    /**
+     * Apply field writes made through a batch all at once, notifying each
+     * observer of the changed variables a single time and optionally saving
+     * the configuration once. If the edits throw an exception, no write is
+     * applied.
+     *
+     * @param edits function buffering writes into the batch
+     * @param save true to save the configuration once the writes are applied
+     * @return true if all the writes were applied (and saved if requested),
+     * false otherwise
+     * @see ConfigBatch#commit(boolean)
+     */
+    default boolean batch(Consumer<ConfigBatch> edits, boolean save) {
+        ConfigBatch b = beginBatch();
+        try {
+            edits.accept(b);
+        } catch(RuntimeException e) {
+            e.printStackTrace();
+            b.rollback();
+            return false;
+        }
+        return b.commit(save);
+    }
+
+    /**
+     * Apply field writes made through a batch all at once without saving.
+     *
+     * @param edits function buffering writes into the batch
+     * @return true if all the writes were applied, false otherwise
+     * @see #batch(Consumer, boolean)
+     */
+    default boolean batch(Consumer<ConfigBatch> edits) {
+        return batch(edits, false);
+    }
+
     /**
      * Update all the configuration variables and optionally notify their
      * observers if a change of value was detected.<br>
@@ -40,6 +40,15 @@ public interface Configuration
 	 */
 	ConfigVariable getVar(String key);
 
+    /**
+     * @param slot slot of the template of the owner's class describing the
+     *             field of the variable
+     * @return variable of the field, null if the configuration holds none
+     */
+    default ConfigVariable getVar(ConfigTemplate.Slot slot) {
+        return getVar(slot.getKey());
+    }
+
     /**
      * @return collection of a all configuration variables
      */
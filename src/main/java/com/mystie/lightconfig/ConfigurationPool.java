@@ -0,0 +1,76 @@
+package com.mystie.lightconfig;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Function;
+
+/**
+ * Pool of configurations for short-lived configurable instances of a single
+ * class. A released configuration keeps its {@link ConfigVariable} instances
+ * and is rebound to the next owner on acquisition instead of being rebuilt.
+ * <br>
+ * A reused configuration also keeps the settings it was built with, such as
+ * the save file of a {@link ConfigFile}, so the configurations of a pool
+ * share one path unless each owner sets its own file after acquiring one.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ * @param <T> type of the pooled configuration
+ */
+public class ConfigurationPool<T extends MapConfiguration> {
+    private final Function<Configurable, T> factory;
+    private final Deque<T> free = new ArrayDeque<>();
+    private final int capacity;
+
+    /**
+     * @param factory factory building a new configuration for an owner when
+     *                the pool is empty; it is not called again when the
+     *                configuration is reused for other owners
+     * @param capacity maximum number of released configurations kept
+     */
+    public ConfigurationPool(Function<Configurable, T> factory, int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get a configuration for an owner, reusing a released one if possible.
+     *
+     * @param owner configurable instance owning the configuration
+     * @return configuration bound to the owner
+     */
+    public T acquire(Configurable owner) {
+        T cfg;
+        synchronized(free) {
+            cfg = free.pollFirst();
+        }
+        if(cfg == null)
+            return factory.apply(owner);
+        cfg.rebind(owner);
+        return cfg;
+    }
+
+    /**
+     * Give back a configuration whose owner is no longer used. The
+     * configuration must not be used by its previous owner afterwards.
+     *
+     * @param cfg configuration to be released
+     */
+    public void release(T cfg) {
+        cfg.rebind(null);
+        synchronized(free) {
+            if(free.size() < capacity)
+                free.addFirst(cfg);
+        }
+    }
+
+    /**
+     * @return number of configurations available for reuse
+     */
+    public int available() {
+        synchronized(free) {
+            return free.size();
+        }
+    }
+}
@@ -6,18 +6,20 @@ import java.util.*;
 
 /**
  * Implementation of key-value pair mapping feature of a configuration using a
- * hash-map.
+ * {@link VariableIndex}, allowing access to variables by key or by slot.
  *
  * @author Samuel Longchamps
  * @version 1.0
  * @since 1.0
  */
 public abstract class MapConfiguration implements Configuration {
-    private Map<String, ConfigVariable> configVars = new HashMap<>();
+    private VariableIndex configVars = new VariableIndex();
     private Configurable owner;
+    private Class<?> ownerType;
 
     public MapConfiguration(Configurable owner) {
         this.owner = owner;
+        this.ownerType = owner.getClass();
     }
 
     @Override
@@ -25,6 +27,34 @@ public abstract class MapConfiguration implements Configuration {
         return owner;
     }
 
+    /**
+     * Rebind the configuration to another owner of the same class, keeping
+     * the existing variables instead of creating new ones. Variables are
+     * expected to supply their value from {@link #getOwner()}, so they are
+     * updated from the new owner, without being marked as changed, and their
+     * observers are reset.
+     *
+     * @param newOwner configurable instance of the same class as the current
+     *                 owner, or null to detach the configuration
+     * @throws IllegalArgumentException if the new owner is of another class
+     */
+    public void rebind(Configurable newOwner) throws IllegalArgumentException {
+        if(newOwner != null && newOwner.getClass() != ownerType)
+            throw new IllegalArgumentException(
+                    "Configuration of " + ownerType.getName() + " cannot " +
+                    "be bound to an instance of " +
+                    newOwner.getClass().getName() + "!");
+
+        owner = newOwner;
+        resetObservers();
+        if(newOwner != null) {
+            for(ConfigVariable var : configVars.values()) {
+                var.update();
+                var.discardChange();
+            }
+        }
+    }
+
     @Override
     public void addVar(String key, ConfigVariable val) {
         configVars.put(key, val);
@@ -41,6 +71,48 @@ public abstract class MapConfiguration implements Configuration {
         return configVars.get(key);
     }
 
+    /**
+     * Get the variable of a field by its position in the template, which is
+     * its slot as long as the variables were added in template order and
+     * none was removed, falling back to a lookup by key otherwise.
+     *
+     * @param slot slot of the template of the owner's class describing the
+     *             field of the variable
+     * @return variable of the field, null if the configuration holds none
+     */
+    @Override
+    public ConfigVariable getVar(ConfigTemplate.Slot slot) {
+        int i = slot.getIndex();
+        if(i < configVars.size() && configVars.getKey(i) == slot.getKey())
+            return configVars.get(i);
+        return configVars.get(slot.getKey());
+    }
+
+    /**
+     * @param slot slot of the variable, as returned by {@link #slotOf(String)}
+     * @return variable at the slot
+     * @throws IndexOutOfBoundsException if the slot is out of range
+     */
+    public ConfigVariable getVar(int slot) throws IndexOutOfBoundsException {
+        return configVars.get(slot);
+    }
+
+    /**
+     * @param key string key linked to the value
+     * @return slot of the variable linked to the key, -1 if the key is not
+     * found
+     */
+    public int slotOf(String key) {
+        return configVars.slotOf(key);
+    }
+
+    /**
+     * @return number of variables held by the configuration
+     */
+    public int size() {
+        return configVars.size();
+    }
+
     @Override
     public Collection<ConfigVariable> getVars() {
         return configVars.values();
@@ -69,6 +141,7 @@ public abstract class MapConfiguration implements Configuration {
     public Collection<Pair<Class, String>> getOmissions() {
         Collection<Pair<Class, String>> lst = Configuration.super.getOmissions();
         lst.add(new Pair<>(MapConfiguration.class, "owner"));
+        lst.add(new Pair<>(MapConfiguration.class, "ownerType"));
         return lst;
     }
 }
@@ -0,0 +1,28 @@
+package com.mystie.lightconfig;
+
+/**
+ * Conversion of the value of a configuration variable to and from text, used
+ * by text-based formats for types they do not know how to convert.<br>
+ * Implementations are specified through
+ * {@link com.mystie.lightconfig.annotation.Config#converter()} and must
+ * provide a public no-argument constructor.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ * @param <T> type of the converted values
+ */
+public interface ValueConverter<T> {
+    /**
+     * @param str textual representation of a value
+     * @return converted value
+     * @throws IllegalArgumentException if the text cannot be converted
+     */
+    T fromString(String str) throws IllegalArgumentException;
+
+    /**
+     * @param val value to be represented
+     * @return textual representation of the value
+     */
+    String toString(T val);
+}
@@ -0,0 +1,110 @@
+package com.mystie.lightconfig;
+
+/**
+ * Conversion of variable values to and from their textual representation, as
+ * used by text-based codecs and the sharing of changes between processes.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Values {
+    private Values() {}
+
+    /**
+     * @param val value to be represented
+     * @return textual representation of the value, null for a null value
+     */
+    public static String toString(Object val) {
+        return val == null ? null : val.toString();
+    }
+
+    /**
+     * Convert a textual representation back into a value of a given type.
+     *
+     * @param type type of the value, as given by the configuration variable
+     * @param str textual representation of the value
+     * @return converted value, null if the type is not supported or the text
+     * cannot be converted
+     */
+    @SuppressWarnings("unchecked")
+    public static Object fromString(Class<?> type, String str) {
+        if(str == null) return null;
+        try {
+            if(type == String.class)
+                return str;
+            if(type == Integer.class || type == int.class)
+                return Integer.valueOf(str);
+            if(type == Long.class || type == long.class)
+                return Long.valueOf(str);
+            if(type == Double.class || type == double.class)
+                return Double.valueOf(str);
+            if(type == Float.class || type == float.class)
+                return Float.valueOf(str);
+            if(type == Short.class || type == short.class)
+                return Short.valueOf(str);
+            if(type == Byte.class || type == byte.class)
+                return Byte.valueOf(str);
+            if(type == Boolean.class || type == boolean.class)
+                return Boolean.valueOf(str);
+            if(type == Character.class || type == char.class)
+                return str.length() == 1 ? str.charAt(0) : null;
+            if(Enum.class.isAssignableFrom(type)) {
+                // Constants with a body are instances of a subclass
+                Class<?> enumType = type.isEnum() ? type : type.getSuperclass();
+                return Enum.valueOf((Class<Enum>) enumType, str);
+            }
+        } catch(IllegalArgumentException ignored) {}
+        return null;
+    }
+
+    /**
+     * Represent the value of a variable of a configuration, using the
+     * converter declared by the annotation of its field if any.
+     *
+     * @param cfg configuration holding the variable
+     * @param key key of the variable
+     * @param val value to be represented
+     * @return textual representation of the value, null for a null value
+     */
+    public static String toString(Configuration cfg, String key, Object val) {
+        ConfigTemplate.Slot s = slotOf(cfg, key);
+        return s != null ? s.toString(val) : toString(val);
+    }
+
+    /**
+     * Convert a textual representation back into a value of a variable of a
+     * configuration, using the converter declared by the annotation of its
+     * field if any, or the type of the variable otherwise.
+     *
+     * @param cfg configuration holding the variable
+     * @param key key of the variable
+     * @param str textual representation of the value
+     * @return converted value, null if the key is not found or the text cannot
+     * be converted
+     */
+    public static Object fromString(Configuration cfg, String key,
+                                    String str) {
+        ConfigTemplate.Slot s = slotOf(cfg, key);
+        if(s != null && s.hasConverter())
+            return s.fromString(str);
+        ConfigVariable cv = s != null ? cfg.getVar(s) : cfg.getVar(key);
+        return cv == null ? null : fromString(cv.getType(), str);
+    }
+
+    /**
+     * @param cfg configuration holding the variable
+     * @param key key of the variable
+     * @return true if the field of the variable declares a converter
+     */
+    public static boolean hasConverter(Configuration cfg, String key) {
+        ConfigTemplate.Slot s = slotOf(cfg, key);
+        return s != null && s.hasConverter();
+    }
+
+    private static ConfigTemplate.Slot slotOf(Configuration cfg, String key) {
+        Configurable<?> owner = cfg.getOwner();
+        return owner == null ? null
+                             : ConfigTemplate.of(owner.getClass()).getSlot(key);
+    }
+}
@@ -0,0 +1,283 @@
+package com.mystie.lightconfig;
+
+import java.util.*;
+
+/**
+ * Storage of configuration variables by key, backed by parallel arrays and an
+ * open-addressing table of keys.<br>
+ * Variables are kept in insertion order and can be accessed either by key or
+ * by slot number. Since the keys of a configuration are known once it has
+ * been adapted from its owner, slot numbers are stable as long as no variable
+ * is removed; removing a variable shifts the slots of the following ones.
+ * Keys are interned and the table holds the variable of each key along with
+ * it, so a lookup with an interned key such as a field name usually costs a
+ * single reference comparison. Code holding the {@link ConfigTemplate.Slot}
+ * of a field can skip the table through
+ * {@link MapConfiguration#getVar(ConfigTemplate.Slot)}.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public final class VariableIndex {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private ConfigVariable[] vars = new ConfigVariable[INITIAL_CAPACITY];
+    private int size;
+    // Open-addressing table: key hashed at each position, null if empty,
+    // along with its variable and slot
+    private transient String[] tableKeys;
+    private transient ConfigVariable[] tableVars;
+    private transient int[] tableSlots;
+    private transient int shift;
+
+    private transient Set<String> keySet;
+    private transient Collection<ConfigVariable> values;
+
+    /**
+     * @return number of variables in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key string key linked to the variable
+     * @return slot of the variable, -1 if the key is not found
+     */
+    public int slotOf(String key) {
+        int pos = position(key);
+        return pos < 0 ? -1 : tableSlots[pos];
+    }
+
+    /**
+     * @param key string key linked to the variable
+     * @return variable linked to the key, null if the key is not found
+     */
+    public ConfigVariable get(String key) {
+        int pos = position(key);
+        return pos < 0 ? null : tableVars[pos];
+    }
+
+    /**
+     * @param slot slot of the variable
+     * @return variable at the slot
+     * @throws IndexOutOfBoundsException if the slot is out of range
+     */
+    public ConfigVariable get(int slot) throws IndexOutOfBoundsException {
+        checkSlot(slot);
+        return vars[slot];
+    }
+
+    /**
+     * @param slot slot of the variable
+     * @return key of the variable at the slot
+     * @throws IndexOutOfBoundsException if the slot is out of range
+     */
+    public String getKey(int slot) throws IndexOutOfBoundsException {
+        checkSlot(slot);
+        return keys[slot];
+    }
+
+    /**
+     * Bind a variable to a key, replacing the variable already bound to it.
+     *
+     * @param key string key linked to the variable
+     * @param var variable to be bound
+     * @return variable previously bound to the key, null if none
+     */
+    public ConfigVariable put(String key, ConfigVariable var) {
+        int pos = position(key);
+        if(pos >= 0) {
+            int slot = tableSlots[pos];
+            ConfigVariable old = vars[slot];
+            vars[slot] = var;
+            tableVars[pos] = var;
+            return old;
+        }
+
+        if(size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            vars = Arrays.copyOf(vars, size * 2);
+        }
+        keys[size] = key.intern();
+        vars[size] = var;
+        ++size;
+        if(size * 2 > tableKeys.length)
+            tableKeys = null;
+        else
+            insert(size - 1);
+        return null;
+    }
+
+    /**
+     * @param key string key linked to the variable
+     * @return variable which was bound to the key, null if the key is not
+     * found
+     */
+    public ConfigVariable remove(String key) {
+        int slot = slotOf(key);
+        if(slot < 0) return null;
+
+        ConfigVariable old = vars[slot];
+        int moved = size - slot - 1;
+        System.arraycopy(keys, slot + 1, keys, slot, moved);
+        System.arraycopy(vars, slot + 1, vars, slot, moved);
+        --size;
+        keys[size] = null;
+        vars[size] = null;
+        tableKeys = null;
+        return old;
+    }
+
+    /**
+     * @return view of the keys, in slot order
+     */
+    public Set<String> keySet() {
+        if(keySet == null) {
+            keySet = new AbstractSet<String>() {
+                @Override
+                public Iterator<String> iterator() {
+                    return new SlotIterator<String>() {
+                        @Override
+                        String at(int slot) {
+                            return keys[slot];
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof String && slotOf((String) o) >= 0;
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return keySet;
+    }
+
+    /**
+     * @return view of the variables, in slot order
+     */
+    public Collection<ConfigVariable> values() {
+        if(values == null) {
+            values = new AbstractCollection<ConfigVariable>() {
+                @Override
+                public Iterator<ConfigVariable> iterator() {
+                    return new SlotIterator<ConfigVariable>() {
+                        @Override
+                        ConfigVariable at(int slot) {
+                            return vars[slot];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return values;
+    }
+
+    private void checkSlot(int slot) {
+        if(slot < 0 || slot >= size)
+            throw new IndexOutOfBoundsException(
+                    "Slot " + slot + " is out of range [0, " + size + ")!");
+    }
+
+    /**
+     * @param key string key linked to the variable
+     * @return position of the key in the table, -1 if the key is not found
+     */
+    private int position(String key) {
+        String[] tbl = tableKeys;
+        if(tbl == null)
+            tbl = rebuild();
+        int h = (key.hashCode() * 0x9E3779B9) >>> shift;
+        // Keys of the table are interned, so a field name is usually found by
+        // reference at its first position
+        String k = tbl[h];
+        if(k == key)
+            return h;
+        return k == null ? -1 : probe(tbl, key, h);
+    }
+
+    /**
+     * @param tbl keys of the table
+     * @param key string key linked to the variable
+     * @param h position from which the key is searched
+     * @return position of the key in the table, -1 if the key is not found
+     */
+    private static int probe(String[] tbl, String key, int h) {
+        int mask = tbl.length - 1;
+        String k;
+        while((k = tbl[h]) != null) {
+            if(k == key || key.equals(k))
+                return h;
+            h = (h + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Rebuild the open-addressing table from the keys. Positions are taken
+     * from the high bits of the Fibonacci hash of the keys, since field names
+     * sharing a prefix have close hash codes which would otherwise form long
+     * runs of occupied positions.
+     *
+     * @return keys of the table
+     */
+    private String[] rebuild() {
+        int cap = INITIAL_CAPACITY * 2;
+        while(cap < size * 2)
+            cap <<= 1;
+        tableKeys = new String[cap];
+        tableVars = new ConfigVariable[cap];
+        tableSlots = new int[cap];
+        shift = Integer.numberOfLeadingZeros(cap) + 1;
+        for(int i = 0; i < size; ++i) {
+            // Keys read back from a file are not interned yet
+            keys[i] = keys[i].intern();
+            insert(i);
+        }
+        return tableKeys;
+    }
+
+    private void insert(int slot) {
+        int mask = tableKeys.length - 1;
+        int h = (keys[slot].hashCode() * 0x9E3779B9) >>> shift;
+        while(tableKeys[h] != null)
+            h = (h + 1) & mask;
+        tableKeys[h] = keys[slot];
+        tableVars[h] = vars[slot];
+        tableSlots[h] = slot;
+    }
+
+    /**
+     * Read-only iterator over the occupied slots
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int next = 0;
+
+        abstract E at(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public E next() {
+            if(next >= size)
+                throw new NoSuchElementException();
+            return at(next++);
+        }
+    }
+}
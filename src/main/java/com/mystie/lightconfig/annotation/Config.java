@@ -1,12 +1,17 @@
 package com.mystie.lightconfig.annotation;
 
+import com.mystie.lightconfig.ValueConverter;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Annotation interface for a configuration variable
+ * Annotation interface for a configuration variable<br>
+ * Besides its label, a variable can declare constraints which are checked
+ * whenever its value is set through the configuration or loaded from a file.
+ * The constraints are compiled once per class.
  *
  * @author		Samuel Longchamps
  * @version		1.0
@@ -21,4 +26,31 @@ public @interface Config {
      */
     String value() default "";
 
+    /**
+     * @return minimum value of a numeric variable, inclusive
+     */
+    double min() default Double.NEGATIVE_INFINITY;
+
+    /**
+     * @return maximum value of a numeric variable, inclusive
+     */
+    double max() default Double.POSITIVE_INFINITY;
+
+    /**
+     * @return regular expression which the value of a string variable must
+     * match, empty if none
+     */
+    String pattern() default "";
+
+    /**
+     * @return textual representation of the value used when a loaded value is
+     * missing or violates the constraints, empty if none
+     */
+    String defaultValue() default "";
+
+    /**
+     * @return converter of the value to and from text, {@link ValueConverter}
+     * itself if the type of the variable is converted the usual way
+     */
+    Class<? extends ValueConverter> converter() default ValueConverter.class;
 }
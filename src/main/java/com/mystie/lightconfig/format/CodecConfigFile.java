@@ -0,0 +1,273 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.*;
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
+
+import java.io.*;
+import java.util.Map;
+
+/**
+ * Implementation of a configuration file using a map with string key and
+ * persisted in the format of a {@link ConfigCodec}
+ *
+ * @author		Samuel Longchamps
+ * @version		1.0
+ * @since		1.0
+ */
+public class CodecConfigFile extends MapConfiguration
+        implements ConfigFile
+{
+    @XStreamOmitField private File saveFile;
+    @XStreamOmitField private ConfigCodec codec;
+    @XStreamOmitField private ConfigHistory history;
+
+    /**
+     * Constructor for a configuration file bound to a configurable instance
+     * defining certain config fields.
+     *
+     * @param owner configurable object by which the configuration file is
+     *              owned. Must not be null.
+     * @param filePath full path to the file being used as save file
+     * @param codec codec of the format in which the file is persisted
+     */
+    public CodecConfigFile(Configurable<ConfigFile> owner, String filePath,
+                           ConfigCodec codec) {
+        super(owner);
+        this.codec = codec;
+        setFile(new File(filePath));
+        adaptFrom(owner);
+        codec.bind(this);
+    }
+
+    /**
+     * Constructor for a configuration file whose format is chosen from the
+     * extension of the file among the codecs of {@link ConfigCodecs}.
+     *
+     * @param owner configurable object by which the configuration file is
+     *              owned. Must not be null.
+     * @param filePath full path to the file being used as save file
+     * @throws IllegalArgumentException if no codec handles the extension
+     */
+    public CodecConfigFile(Configurable<ConfigFile> owner, String filePath)
+            throws IllegalArgumentException {
+        this(owner, filePath, codecFor(filePath));
+    }
+
+    private static ConfigCodec codecFor(String filePath)
+            throws IllegalArgumentException {
+        ConfigCodec c = ConfigCodecs.forFile(new File(filePath));
+        if(c == null)
+            throw new IllegalArgumentException(
+                    "No codec found for the file " + filePath + "!");
+        return c;
+    }
+
+    /**
+     * Adapt the configuration file from a configurable instance, using the
+     * {@link ConfigTemplate} of its class to create {@link ConfigVariable}
+     * instances which read their value from the current owner.<br>
+     * Note that because a configurable instance knows not of the persistence
+     * mechanism used by the configuration implementation, the save file is not
+     * populated in this method.
+     *
+     * @param adaptedObj configurable instance to adapt from
+     */
+    private void adaptFrom(Configurable adaptedObj) {
+        ConfigTemplate tpl = ConfigTemplate.of(adaptedObj.getClass());
+        for(ConfigTemplate.Slot s : tpl.getSlots()) {
+            try {
+                ConfigVariable cfgVar = new ConfigVariable(
+                        s.getField().get(adaptedObj).getClass(),
+                        s.getLabel(),
+                        ()->valueOf(s)
+                );
+                addVar(s.getKey(), cfgVar);
+            } catch(IllegalAccessException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @param s slot of the field of a variable
+     * @return value of the field of the owner, or the current value of the
+     * variable while the configuration is detached so that updating it has
+     * no effect
+     */
+    private Object valueOf(ConfigTemplate.Slot s) {
+        Configurable owner = getOwner();
+        if(owner != null)
+            return s.get(owner);
+        ConfigVariable cv = getVar(s);
+        return cv == null ? null : cv.getValue();
+    }
+
+    /**
+     * Rebind the configuration file to another owner, as done by
+     * {@link MapConfiguration#rebind(Configurable)}. The versions recorded in
+     * the history belong to the previous owner, so they are discarded. The
+     * save file and the codec are kept.
+     *
+     * @param newOwner configurable instance of the same class as the current
+     *                 owner, or null to detach the configuration
+     * @throws IllegalArgumentException if the new owner is of another class
+     */
+    @Override
+    public void rebind(Configurable newOwner) throws IllegalArgumentException {
+        super.rebind(newOwner);
+        if(history != null)
+            history.clear();
+    }
+
+    /**
+     * @return codec of the format in which the file is persisted
+     */
+    public ConfigCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * @return history in which the values are recorded on save, null if none
+     */
+    public ConfigHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * @param history history in which the values are recorded each time the
+     *                file is saved, null for none
+     */
+    public void setHistory(ConfigHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Save the configuration file using its codec, recording the saved values
+     * in the history if there is one
+     *
+     * @return true if file was saved, false otherwise
+     */
+    @Override
+    public boolean save()
+    {
+        try {
+            File oFile = getFile();
+            if(!oFile.isFile()) {
+                boolean success = true;
+                File oParentDir = oFile.getParentFile();
+                if(!oParentDir.isDirectory())
+                    success = oParentDir.mkdirs();
+                success &= oFile.createNewFile();
+
+                if(!success)
+                    return false;
+            }
+            try(OutputStream stream = new BufferedOutputStream(
+                    new FileOutputStream(oFile))) {
+                codec.encode(this, stream);
+            }
+            if(history != null)
+                history.record();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean load() {
+        File f = getFile();
+        if(f.isFile() && f.canRead()) {
+            try(InputStream stream = new BufferedInputStream(
+                    new FileInputStream(f))) {
+                loaded(codec.decode(this, stream));
+                return true;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean delete() {
+        File f = getFile();
+        return !f.exists() || (f.isFile() && f.canWrite() && f.delete());
+    }
+
+    @Override
+    public boolean copyFrom(Configuration cfg) {
+        if(cfg == null) return false;
+
+        for(String key : getKeys()) {
+            ConfigVariable cvSrc = cfg.getVar(key);
+            if(cvSrc != null) {
+                set(key, cvSrc.getValue());
+                getVar(key).discardChange();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the owner's fields from values decoded from the file and reset the
+     * observers, as done by {@link #load()}. The variables are not left
+     * marked as changed, so that a later update does not notify the values
+     * which were loaded. Keys which are not variables of
+     * this configuration are ignored, while variables missing from the values
+     * are set to their declared default if any.
+     *
+     * @param values values by key
+     */
+    void loaded(Map<String, Object> values) {
+        for(Map.Entry<String, Object> e : values.entrySet())
+            set(e.getKey(), e.getValue());
+
+        ConfigTemplate tpl = ConfigTemplate.of(getOwner().getClass());
+        for(ConfigTemplate.Slot s : tpl.getSlots()) {
+            if(s.hasDefault() && !values.containsKey(s.getKey()))
+                set(s.getKey(), s.getDefault());
+        }
+        for(ConfigVariable var : getVars())
+            var.discardChange();
+        resetObservers();
+    }
+
+    /**
+     * Set an owner's field and update its variable. A value violating the
+     * constraints of the field is replaced by the declared default, or
+     * ignored if there is none.
+     *
+     * @param key key of the variable
+     * @param val value to be set
+     */
+    private void set(String key, Object val) {
+        Configurable owner = getOwner();
+        ConfigTemplate.Slot s = ConfigTemplate.of(owner.getClass()).getSlot(key);
+        if(s == null) return;
+        ConfigVariable cvDst = getVar(s);
+        if(cvDst == null) return;
+        if(!s.accepts(val)) {
+            if(!s.hasDefault()) return;
+            val = s.getDefault();
+        }
+        try {
+            s.set(owner, val);
+            cvDst.update();
+        } catch(IllegalAccessException | IllegalArgumentException ignored) {}
+    }
+
+    @Override
+    public File getFile()
+    {
+        return saveFile;
+    }
+
+    @Override
+    public void setFile(File saveFile) {
+        this.saveFile = saveFile;
+    }
+}
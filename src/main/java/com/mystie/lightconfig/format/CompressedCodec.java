@@ -0,0 +1,212 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.Configuration;
+
+import java.io.*;
+import java.util.Map;
+import java.util.zip.*;
+
+/**
+ * Codec compressing the output of another codec with Deflate and appending a
+ * CRC32 checksum of the stored bytes.<br>
+ * A compressed file starts with a 4 bytes magic number, followed by the
+ * Deflate stream and ends with the checksum of all the preceding bytes. The
+ * checksum is computed while the file is streamed to the wrapped codec and is
+ * verified before the decoded values are returned, so that a corrupted or
+ * truncated file is never applied to a configuration.<br>
+ * This codec takes arguments and is therefore not discovered by
+ * {@link ConfigCodecs}; it is passed explicitly to a {@link CodecConfigFile}.
+ *
+ * @author		Samuel Longchamps
+ * @version		1.0
+ * @since		1.0
+ */
+public class CompressedCodec implements ConfigCodec {
+    private static final int MAGIC = 0x4C435A01;
+    private static final int TRAILER_SIZE = 4;
+
+    private final ConfigCodec codec;
+    private final int level;
+
+    /**
+     * @param codec codec whose output is compressed
+     * @param level compression level, from {@link Deflater#BEST_SPEED} to
+     *              {@link Deflater#BEST_COMPRESSION}, or
+     *              {@link Deflater#DEFAULT_COMPRESSION}
+     * @throws IllegalArgumentException if the level is invalid
+     */
+    public CompressedCodec(ConfigCodec codec, int level)
+            throws IllegalArgumentException {
+        if((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+                && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException(
+                    "Invalid compression level " + level + "!");
+        this.codec = codec;
+        this.level = level;
+    }
+
+    /**
+     * @param codec codec whose output is compressed at the default level
+     */
+    public CompressedCodec(ConfigCodec codec) {
+        this(codec, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public String getName() {
+        return codec.getName() + "+deflate";
+    }
+
+    @Override
+    public String getExtension() {
+        return codec.getExtension() + ".z";
+    }
+
+    @Override
+    public void bind(Configuration cfg) {
+        codec.bind(cfg);
+    }
+
+    @Override
+    public void encode(Configuration cfg, OutputStream out)
+            throws IOException {
+        CheckedOutputStream checked =
+                new CheckedOutputStream(out, new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+
+        Deflater def = new Deflater(level);
+        try {
+            DeflaterOutputStream deflated =
+                    new DeflaterOutputStream(checked, def);
+            codec.encode(cfg, deflated);
+            deflated.finish();
+        } finally {
+            def.end();
+        }
+
+        int crc = (int) checked.getChecksum().getValue();
+        new DataOutputStream(out).writeInt(crc);
+        out.flush();
+    }
+
+    @Override
+    public Map<String, Object> decode(Configuration cfg, InputStream in)
+            throws IOException {
+        TrailerInputStream stored = new TrailerInputStream(in);
+        if(new DataInputStream(stored).readInt() != MAGIC)
+            throw new IOException("Not a compressed configuration!");
+
+        Map<String, Object> values;
+        Inflater inf = new Inflater();
+        try {
+            values = codec.decode(cfg, new InflaterInputStream(stored, inf));
+        } finally {
+            inf.end();
+        }
+
+        // The wrapped codec may stop before the end of the stream
+        byte[] skip = new byte[512];
+        while(stored.read(skip, 0, skip.length) != -1);
+        if(stored.getTrailer() != (int) stored.getChecksum())
+            throw new IOException("Checksum mismatch, the configuration " +
+                    "is corrupted!");
+        return values;
+    }
+
+    /**
+     * Stream holding back the trailer at the end of the underlying stream and
+     * computing the checksum of the bytes read before it.
+     */
+    private static class TrailerInputStream extends FilterInputStream {
+        private final CRC32 crc = new CRC32();
+        private byte[] held;
+        private byte[] tmp = new byte[0];
+
+        TrailerInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(len == 0) return 0;
+            fillHeld();
+            if(tmp.length < len)
+                tmp = new byte[len];
+            int n = in.read(tmp, 0, len);
+            if(n == -1) return -1;
+
+            // Emit the first n bytes of held + tmp and keep the last ones
+            if(n >= TRAILER_SIZE) {
+                System.arraycopy(held, 0, b, off, TRAILER_SIZE);
+                System.arraycopy(tmp, 0, b, off + TRAILER_SIZE,
+                        n - TRAILER_SIZE);
+                System.arraycopy(tmp, n - TRAILER_SIZE, held, 0,
+                        TRAILER_SIZE);
+            } else {
+                System.arraycopy(held, 0, b, off, n);
+                System.arraycopy(held, n, held, 0, TRAILER_SIZE - n);
+                System.arraycopy(tmp, 0, held, TRAILER_SIZE - n, n);
+            }
+            crc.update(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] b = new byte[(int) Math.min(n, 512)];
+            int r = read(b, 0, b.length);
+            return r < 0 ? 0 : r;
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream is closed by its owner
+        }
+
+        /**
+         * @return checksum of the bytes read so far
+         */
+        long getChecksum() {
+            return crc.getValue();
+        }
+
+        /**
+         * @return trailer, valid once the end of the stream is reached
+         * @throws IOException if the stream is too short to hold a trailer
+         */
+        int getTrailer() throws IOException {
+            fillHeld();
+            return ((held[0] & 0xFF) << 24) | ((held[1] & 0xFF) << 16) |
+                   ((held[2] & 0xFF) << 8) | (held[3] & 0xFF);
+        }
+
+        private void fillHeld() throws IOException {
+            if(held != null) return;
+            held = new byte[TRAILER_SIZE];
+            int n = 0;
+            while(n < TRAILER_SIZE) {
+                int r = in.read(held, n, TRAILER_SIZE - n);
+                if(r == -1)
+                    throw new EOFException("Configuration is truncated!");
+                n += r;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Service interface for a persistence format of configuration files.<br>
+ * Implementations are discovered using {@link java.util.ServiceLoader} and
+ * must therefore provide a public no-argument constructor. See
+ * {@link ConfigCodecs} to look them up.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ConfigCodec {
+    /**
+     * @return unique name of the format, such as "xml"
+     */
+    String getName();
+
+    /**
+     * @return file extension of the format, without the leading dot
+     */
+    String getExtension();
+
+    /**
+     * Prepare the codec for a configuration before it is encoded or decoded
+     * for the first time.
+     *
+     * @param cfg configuration which will use the codec
+     */
+    default void bind(Configuration cfg) {}
+
+    /**
+     * Write the variables of a configuration to a stream. The stream is
+     * flushed but left open.
+     *
+     * @param cfg configuration to be written
+     * @param out stream to write to
+     * @throws IOException if the configuration cannot be written
+     */
+    void encode(Configuration cfg, OutputStream out) throws IOException;
+
+    /**
+     * Read variable values from a stream. The variables of the configuration
+     * are used to know which keys are expected and of which type their values
+     * are; the configuration itself is not modified.
+     *
+     * @param cfg configuration for which values are read
+     * @param in stream to read from
+     * @return values read, by key
+     * @throws IOException if the stream cannot be read or is malformed
+     */
+    Map<String, Object> decode(Configuration cfg, InputStream in)
+            throws IOException;
+}
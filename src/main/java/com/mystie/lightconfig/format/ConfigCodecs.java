@@ -0,0 +1,65 @@
+package com.mystie.lightconfig.format;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link ConfigCodec} implementations available on the
+ * classpath.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ConfigCodecs {
+    private static final List<ConfigCodec> codecs;
+
+    static {
+        List<ConfigCodec> lst = new ArrayList<>();
+        for(ConfigCodec c : ServiceLoader.load(ConfigCodec.class,
+                ConfigCodec.class.getClassLoader()))
+            lst.add(c);
+        codecs = Collections.unmodifiableList(lst);
+    }
+
+    private ConfigCodecs() {}
+
+    /**
+     * @return all the codecs discovered
+     */
+    public static List<ConfigCodec> getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * @param name name of the format
+     * @return codec of the format, null if none is found
+     */
+    public static ConfigCodec forName(String name) {
+        for(ConfigCodec c : codecs) {
+            if(c.getName().equalsIgnoreCase(name))
+                return c;
+        }
+        return null;
+    }
+
+    /**
+     * @param file file whose extension designates the format
+     * @return codec of the format, null if none is found
+     */
+    public static ConfigCodec forFile(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        if(dot < 0) return null;
+
+        String ext = name.substring(dot + 1);
+        for(ConfigCodec c : codecs) {
+            if(c.getExtension().equalsIgnoreCase(ext))
+                return c;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,274 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.ConfigFile;
+import com.mystie.lightconfig.Configurable;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Loader of several configuration files at once, typically at application
+ * startup.<br>
+ * The files are read and decoded concurrently on an executor, while the
+ * decoded values are applied to the owners on the calling thread as soon as
+ * each file is ready. As with {@link ConfigFile#loadOrSave()}, a file which
+ * does not exist yet is created from the current state of its owner.
+ *
+ * @author		Samuel Longchamps
+ * @version		1.0
+ * @since		1.0
+ */
+public class ConfigPreloader {
+    private final List<CodecConfigFile> files = new ArrayList<>();
+    private final Executor executor;
+
+    /**
+     * @param executor executor on which files are read and decoded
+     */
+    public ConfigPreloader(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Constructor for a preloader using the common fork-join pool
+     */
+    public ConfigPreloader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param owner configurable instance whose configuration is preloaded
+     * @return this preloader
+     * @throws IllegalArgumentException if the configuration of the owner is
+     * not a {@link CodecConfigFile}
+     */
+    public ConfigPreloader register(Configurable<? extends ConfigFile> owner)
+            throws IllegalArgumentException {
+        ConfigFile cfg = owner.getConfiguration();
+        if(!(cfg instanceof CodecConfigFile))
+            throw new IllegalArgumentException(
+                    "Only configurations persisted with a codec can be " +
+                    "preloaded!");
+        return register((CodecConfigFile) cfg);
+    }
+
+    /**
+     * @param cfg configuration file to be preloaded
+     * @return this preloader
+     */
+    public ConfigPreloader register(CodecConfigFile cfg) {
+        files.add(cfg);
+        return this;
+    }
+
+    /**
+     * Load all the registered configuration files, or save those which do
+     * not exist yet.
+     *
+     * @return report of the preloading
+     * @throws InterruptedException if interrupted while waiting for a file
+     */
+    public Report preload() throws InterruptedException {
+        long start = System.nanoTime();
+        BlockingQueue<Result> ready = new LinkedBlockingQueue<>();
+        for(CodecConfigFile cfg : files) {
+            Result r = new Result(cfg);
+            try {
+                executor.execute(() -> {
+                    try {
+                        read(r);
+                    } finally {
+                        ready.add(r);
+                    }
+                });
+            } catch(RejectedExecutionException e) {
+                e.printStackTrace();
+                ready.add(r);
+            }
+        }
+
+        List<Result> results = new ArrayList<>(files.size());
+        for(int i = 0; i < files.size(); ++i) {
+            Result r = ready.take();
+            long applyStart = System.nanoTime();
+            if(r.values != null) {
+                r.cfg.loaded(r.values);
+                r.values = null;
+                r.status = Status.LOADED;
+            } else if(r.status == Status.SAVED && !r.cfg.save()) {
+                r.status = Status.FAILED;
+            }
+            r.applyNanos = System.nanoTime() - applyStart;
+            results.add(r);
+        }
+        return new Report(System.nanoTime() - start, results);
+    }
+
+    /**
+     * Read and decode a file, on the executor. The result is left as failed
+     * unless the file is decoded or does not exist.
+     */
+    private static void read(Result r) {
+        CodecConfigFile cfg = r.cfg;
+        try {
+            long t = System.nanoTime();
+            File f = cfg.getFile();
+            if(!f.isFile()) {
+                r.status = Status.SAVED;
+                return;
+            }
+            byte[] bytes = Files.readAllBytes(f.toPath());
+            r.readNanos = System.nanoTime() - t;
+
+            t = System.nanoTime();
+            r.values = cfg.getCodec().decode(cfg,
+                    new ByteArrayInputStream(bytes));
+            r.decodeNanos = System.nanoTime() - t;
+        } catch(IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Outcome of the preloading of a file
+     */
+    public enum Status {
+        /** Values were loaded from the file */
+        LOADED,
+        /** File did not exist and was created */
+        SAVED,
+        /** File could neither be loaded nor created */
+        FAILED
+    }
+
+    /**
+     * Preloading of a single file
+     */
+    public static final class Result {
+        private final File file;
+        private final CodecConfigFile cfg;
+        private Map<String, Object> values;
+        private Status status = Status.FAILED;
+        private long readNanos;
+        private long decodeNanos;
+        private long applyNanos;
+
+        private Result(CodecConfigFile cfg) {
+            this.cfg = cfg;
+            this.file = cfg.getFile();
+        }
+
+        /**
+         * @return preloaded file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return outcome of the preloading
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return time spent reading the file, in nanoseconds
+         */
+        public long getReadNanos() {
+            return readNanos;
+        }
+
+        /**
+         * @return time spent decoding the file, in nanoseconds
+         */
+        public long getDecodeNanos() {
+            return decodeNanos;
+        }
+
+        /**
+         * @return time spent applying the values or creating the file, in
+         * nanoseconds
+         */
+        public long getApplyNanos() {
+            return applyNanos;
+        }
+
+        /**
+         * @return total time spent on the file, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return readNanos + decodeNanos + applyNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s in %.3f ms (read %.3f, decode %.3f" +
+                    ", apply %.3f)", file, status, getTotalNanos() / 1e6,
+                    readNanos / 1e6, decodeNanos / 1e6, applyNanos / 1e6);
+        }
+    }
+
+    /**
+     * Report of a preloading
+     */
+    public static final class Report {
+        private final long wallNanos;
+        private final List<Result> results;
+
+        private Report(long wallNanos, List<Result> results) {
+            this.wallNanos = wallNanos;
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        /**
+         * @return wall-clock time of the whole preloading, in nanoseconds
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * @return results of all the files, in order of completion
+         */
+        public List<Result> getResults() {
+            return results;
+        }
+
+        /**
+         * @param n maximum number of files
+         * @return results of the files which took the most time, slowest first
+         */
+        public List<Result> getSlowest(int n) {
+            List<Result> lst = new ArrayList<>(results);
+            lst.sort(Comparator.comparingLong(Result::getTotalNanos)
+                    .reversed());
+            return lst.subList(0, Math.min(n, lst.size()));
+        }
+
+        /**
+         * @return true if no file failed, false otherwise
+         */
+        public boolean isSuccessful() {
+            for(Result r : results) {
+                if(r.status == Status.FAILED)
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "Preloaded %d configurations in %.3f ms",
+                    results.size(), wallNanos / 1e6));
+            for(Result r : getSlowest(3))
+                sb.append(System.lineSeparator()).append("  ").append(r);
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.Configuration;
+import com.mystie.lightconfig.Values;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codec persisting a configuration as a flat JSON object of key-value pairs.
+ * <br>
+ * The codec streams the values without reflection: numbers and booleans are
+ * written as such and any other value as the string given by its
+ * {@code toString()} method, unless their field declares a converter. When
+ * decoding, values are converted back to the type of their variable; values
+ * whose type cannot be converted from a string are skipped, while the null
+ * literal is kept as a null value.
+ *
+ * @author		Samuel Longchamps
+ * @version		1.0
+ * @since		1.0
+ */
+public class JsonCodec implements ConfigCodec {
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public String getExtension() {
+        return "json";
+    }
+
+    @Override
+    public void encode(Configuration cfg, OutputStream out)
+            throws IOException {
+        Writer w = new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write('{');
+        boolean first = true;
+        for(String key : cfg.getKeys()) {
+            if(!first) w.write(',');
+            first = false;
+            w.write("\n  ");
+            writeString(w, key);
+            w.write(": ");
+            Object val = cfg.getVar(key).getValue();
+            if(val != null && Values.hasConverter(cfg, key))
+                writeString(w, Values.toString(cfg, key, val));
+            else
+                writeValue(w, val);
+        }
+        w.write("\n}\n");
+        w.flush();
+    }
+
+    @Override
+    public Map<String, Object> decode(Configuration cfg, InputStream in)
+            throws IOException {
+        Parser p = new Parser(new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8)));
+        Map<String, Object> values = new HashMap<>();
+
+        p.expect('{');
+        if(p.peek() == '}') {
+            p.read();
+            return values;
+        }
+        while(true) {
+            String key = p.readString();
+            p.expect(':');
+            String text = p.readScalar();
+            if(text == null) {
+                values.put(key, null);
+            } else {
+                Object val = Values.fromString(cfg, key, text);
+                if(val != null)
+                    values.put(key, val);
+            }
+
+            int c = p.read();
+            if(c == '}') break;
+            if(c != ',')
+                throw p.error("',' or '}'", c);
+        }
+        return values;
+    }
+
+    private static void writeValue(Writer w, Object val) throws IOException {
+        if(val == null) {
+            w.write("null");
+        } else if(val instanceof Boolean) {
+            w.write(val.toString());
+        } else if(val instanceof Number && isFinite((Number) val)) {
+            w.write(val.toString());
+        } else {
+            writeString(w, Values.toString(val));
+        }
+    }
+
+    private static boolean isFinite(Number n) {
+        if(n instanceof Double || n instanceof Float) {
+            double d = n.doubleValue();
+            return !Double.isNaN(d) && !Double.isInfinite(d);
+        }
+        return true;
+    }
+
+    private static void writeString(Writer w, String str) throws IOException {
+        w.write('"');
+        for(int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            switch(c) {
+                case '"':  w.write("\\\""); break;
+                case '\\': w.write("\\\\"); break;
+                case '\n': w.write("\\n"); break;
+                case '\r': w.write("\\r"); break;
+                case '\t': w.write("\\t"); break;
+                default:
+                    if(c < 0x20) {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+            }
+        }
+        w.write('"');
+    }
+
+    /**
+     * Minimal streaming parser for a flat JSON object
+     */
+    private static class Parser {
+        private final Reader reader;
+        private int next = -2;
+
+        Parser(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return next character which is not a whitespace, without
+         * consuming it, -1 at the end of the stream
+         */
+        int peek() throws IOException {
+            if(next == -2) {
+                do {
+                    next = reader.read();
+                } while(next != -1 && Character.isWhitespace(next));
+            }
+            return next;
+        }
+
+        /**
+         * @return next character which is not a whitespace, -1 at the end of
+         * the stream
+         */
+        int read() throws IOException {
+            int c = peek();
+            next = -2;
+            return c;
+        }
+
+        void expect(char expected) throws IOException {
+            int c = read();
+            if(c != expected)
+                throw error("'" + expected + "'", c);
+        }
+
+        String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while((c = reader.read()) != '"') {
+                if(c == -1)
+                    throw error("'\"'", c);
+                if(c == '\\') {
+                    c = reader.read();
+                    switch(c) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for(int i = 0; i < 4; ++i) {
+                                int h = reader.read();
+                                if(h == -1) throw error("hex digit", h);
+                                hex[i] = (char) h;
+                            }
+                            try {
+                                sb.append((char) Integer.parseInt(
+                                        new String(hex), 16));
+                            } catch(NumberFormatException e) {
+                                throw new IOException(
+                                        "Malformed unicode escape in JSON");
+                            }
+                            break;
+                        case -1: throw error("escaped character", c);
+                        default: sb.append((char) c);
+                    }
+                } else {
+                    sb.append((char) c);
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * @return text of a string, number or literal value, null for the
+         * null literal
+         */
+        String readScalar() throws IOException {
+            int c = peek();
+            if(c == '"')
+                return readString();
+            if(c == '{' || c == '[')
+                throw new IOException(
+                        "Nested JSON values are not supported");
+
+            StringBuilder sb = new StringBuilder();
+            read();
+            while(c != -1 && c != ',' && c != '}'
+                    && !Character.isWhitespace(c)) {
+                sb.append((char) c);
+                c = reader.read();
+            }
+            next = Character.isWhitespace(c) ? -2 : c;
+            if(sb.length() == 0)
+                throw error("value", c);
+
+            String text = sb.toString();
+            return text.equals("null") ? null : text;
+        }
+
+        IOException error(String expected, int found) {
+            return new IOException("Malformed JSON: expected " + expected +
+                    " but found " +
+                    (found == -1 ? "end of stream" : "'" + (char) found + "'"));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.Configuration;
+import com.mystie.lightconfig.Values;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Codec persisting a configuration as a {@code .properties} file. Values are
+ * converted the same way as for the {@link JsonCodec}; null values are not
+ * persisted.
+ *
+ * @author		Samuel Longchamps
+ * @version		1.0
+ * @since		1.0
+ */
+public class PropertiesCodec implements ConfigCodec {
+    @Override
+    public String getName() {
+        return "properties";
+    }
+
+    @Override
+    public String getExtension() {
+        return "properties";
+    }
+
+    @Override
+    public void encode(Configuration cfg, OutputStream out)
+            throws IOException {
+        Properties props = new Properties();
+        for(String key : cfg.getKeys()) {
+            String str = Values.toString(cfg, key,
+                    cfg.getVar(key).getValue());
+            if(str != null)
+                props.setProperty(key, str);
+        }
+        props.store(out, null);
+        out.flush();
+    }
+
+    @Override
+    public Map<String, Object> decode(Configuration cfg, InputStream in)
+            throws IOException {
+        Properties props = new Properties();
+        props.load(in);
+
+        Map<String, Object> values = new HashMap<>();
+        for(String key : props.stringPropertyNames()) {
+            Object val = Values.fromString(cfg, key, props.getProperty(key));
+            if(val != null)
+                values.put(key, val);
+        }
+        return values;
+    }
+}
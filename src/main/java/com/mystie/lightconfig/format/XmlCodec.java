@@ -0,0 +1,153 @@
+package com.mystie.lightconfig.format;
+
+import com.mystie.lightconfig.ConfigVariable;
+import com.mystie.lightconfig.Configuration;
+import com.mystie.lightconfig.VariableIndex;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.mapper.Mapper;
+import javafx.util.Pair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codec persisting a configuration as XML, by serializing the configuration
+ * object itself with XStream.
+ *
+ * @author		Samuel Longchamps
+ * @version		1.0
+ * @since		1.0
+ */
+public class XmlCodec implements ConfigCodec {
+    private static XStream xstrm = new XStream();
+
+    static {
+        xstrm.processAnnotations(CodecConfigFile.class);
+        xstrm.registerConverter(
+                new VariableIndexConverter(xstrm.getMapper()));
+    }
+
+    /**
+     * Omit a field from a specific class
+     * @param cls class owning the field
+     * @param name name of the field to be omitted
+     */
+    private synchronized static void omit(Class cls, String name) {
+        xstrm.omitField(cls, name);
+    }
+
+    /**
+     * Omit a collection of fields from classes
+     * @param clsNamePairs collection of pairs
+     */
+    private static void omit(Collection<Pair<Class, String>> clsNamePairs) {
+        for(Pair<Class, String> cnp : clsNamePairs)
+            omit(cnp.getKey(), cnp.getValue());
+    }
+
+    @Override
+    public String getName() {
+        return "xml";
+    }
+
+    @Override
+    public String getExtension() {
+        return "xml";
+    }
+
+    @Override
+    public void bind(Configuration cfg) {
+        omit(cfg.getOmissions());
+        if(cfg.getOwner() != null)
+            omit(cfg.getOwner().getOmissions());
+    }
+
+    @Override
+    public void encode(Configuration cfg, OutputStream out)
+            throws IOException {
+        try {
+            xstrm.toXML(cfg, out);
+        } catch(XStreamException e) {
+            throw new IOException(e);
+        }
+        out.flush();
+    }
+
+    @Override
+    public Map<String, Object> decode(Configuration cfg, InputStream in)
+            throws IOException {
+        Configuration loadedConfig;
+        try {
+            loadedConfig = Configuration.class.cast(xstrm.fromXML(in));
+        } catch(XStreamException | ClassCastException e) {
+            throw new IOException(e);
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for(String key : loadedConfig.getKeys())
+            values.put(key, loadedConfig.getVar(key).getValue());
+        return values;
+    }
+
+    /**
+     * Converter persisting a {@link VariableIndex} as a list of key-variable
+     * entries, the same way a map of variables is persisted.
+     */
+    private static class VariableIndexConverter implements Converter {
+        private final Mapper mapper;
+
+        VariableIndexConverter(Mapper mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean canConvert(Class type) {
+            return type == VariableIndex.class;
+        }
+
+        @Override
+        public void marshal(Object source, HierarchicalStreamWriter writer,
+                            MarshallingContext context) {
+            VariableIndex idx = (VariableIndex) source;
+            for(int i = 0; i < idx.size(); ++i) {
+                writer.startNode("entry");
+                writer.startNode(mapper.serializedClass(String.class));
+                writer.setValue(idx.getKey(i));
+                writer.endNode();
+                writer.startNode(mapper.serializedClass(ConfigVariable.class));
+                context.convertAnother(idx.get(i));
+                writer.endNode();
+                writer.endNode();
+            }
+        }
+
+        @Override
+        public Object unmarshal(HierarchicalStreamReader reader,
+                                UnmarshallingContext context) {
+            VariableIndex idx = new VariableIndex();
+            while(reader.hasMoreChildren()) {
+                reader.moveDown();
+                reader.moveDown();
+                String key = reader.getValue();
+                reader.moveUp();
+                reader.moveDown();
+                ConfigVariable cv = (ConfigVariable) context.convertAnother(
+                        idx, ConfigVariable.class);
+                reader.moveUp();
+                reader.moveUp();
+                idx.put(key, cv);
+            }
+            return idx;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.mystie.lightconfig.ipc;
+
+import com.mystie.lightconfig.ConfigVariable;
+import com.mystie.lightconfig.Configuration;
+import com.mystie.lightconfig.Values;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.Set;
+
+/**
+ * Observer publishing the changes of the variables of a configuration into a
+ * {@link ChangeRing}.<br>
+ * Since loading a configuration resets the observers of its variables, the
+ * publisher must be attached again after a load. A batch notifying the
+ * publisher once with the set of changed keys publishes a change for each of
+ * them.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChangePublisher implements Observer {
+    private final ChangeRing ring;
+    private final Map<ConfigVariable, String> keys = new IdentityHashMap<>();
+    private final Map<ConfigVariable, Configuration> configs =
+            new IdentityHashMap<>();
+
+    /**
+     * @param ring ring to publish changes into
+     */
+    public ChangePublisher(ChangeRing ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Observe all the variables of a configuration.
+     *
+     * @param cfg configuration whose changes are published
+     */
+    public synchronized void attach(Configuration cfg) {
+        for(String key : cfg.getKeys()) {
+            keys.put(cfg.getVar(key), key);
+            configs.put(cfg.getVar(key), cfg);
+        }
+        cfg.observeAll(this);
+    }
+
+    /**
+     * Publish the current value of every variable of a configuration, so that
+     * readers can catch up with the writer without reading its file.
+     *
+     * @param cfg configuration whose values are published
+     */
+    public void publishAll(Configuration cfg) {
+        for(String key : cfg.getKeys())
+            publish(cfg, key, cfg.getVar(key));
+    }
+
+    @Override
+    public void update(Observable o, Object arg) {
+        String key;
+        Configuration cfg;
+        synchronized(this) {
+            key = keys.get(o);
+            cfg = configs.get(o);
+        }
+        if(key == null)
+            return;
+
+        if(arg instanceof Set) {
+            for(Object k : (Set<?>) arg) {
+                ConfigVariable cv = cfg.getVar((String) k);
+                if(cv != null)
+                    publish(cfg, (String) k, cv);
+            }
+        } else {
+            publish(cfg, key, (ConfigVariable) o);
+        }
+    }
+
+    private void publish(Configuration cfg, String key, ConfigVariable cv) {
+        try {
+            ring.publish(key, Values.toString(cfg, key, cv.getValue()));
+        } catch(IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+}
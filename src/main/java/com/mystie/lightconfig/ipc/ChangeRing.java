@@ -0,0 +1,366 @@
+package com.mystie.lightconfig.ipc;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ring buffer of variable changes stored in a memory-mapped file, allowing a
+ * single writer process to publish changes to reader processes on the same
+ * host.<br>
+ * The file starts with a header holding the geometry of the ring, its epoch
+ * and the number of changes published so far, followed by fixed-size slots.
+ * The change with sequence number {@code n} is stored in slot
+ * {@code n % slotCount}, prefixed by its sequence number plus one and by the
+ * epoch in which it was published. The epoch is incremented each time the
+ * writer creates the ring again, for instance after a restart, and the
+ * sequence numbers start over from 0; changes of a previous epoch are never
+ * returned. The file keeps its length so that mappings held by readers stay
+ * valid. The writer
+ * marks a slot as being written before filling it, and readers check the
+ * prefix before and after copying a slot, so a change overwritten while being
+ * read is detected and dropped rather than returned torn. Readers never lock
+ * and never write to the file.<br>
+ * Accesses to the mapping are plain loads and stores, ordered by explicit
+ * fences: the writer fences the stores marking a slot as being written, its
+ * content and its sequence number, and readers fence the loads of the
+ * sequence number around the loads of the content.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ChangeRing implements Closeable {
+    private static final int MAGIC = 0x4C435247;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_SLOT_COUNT = 8;
+    private static final int OFF_SLOT_SIZE = 12;
+    private static final int OFF_WRITE_SEQ = 16;
+    private static final int OFF_EPOCH = 24;
+    // Slot: sequence + 1 (long), payload length (int), epoch (int), payload
+    private static final int SLOT_HEADER_SIZE = 16;
+    private static final long WRITING = -1;
+
+    // Fences of sun.misc.Unsafe, looked up so that compiling does not
+    // depend on the internal class
+    private static final MethodHandle LOAD_FENCE;
+    private static final MethodHandle STORE_FENCE;
+    static {
+        try {
+            Class<?> cls = Class.forName("sun.misc.Unsafe");
+            Field f = cls.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            Object unsafe = f.get(null);
+            MethodType type = MethodType.methodType(void.class);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            LOAD_FENCE = lookup.findVirtual(cls, "loadFence", type)
+                    .bindTo(unsafe);
+            STORE_FENCE = lookup.findVirtual(cls, "storeFence", type)
+                    .bindTo(unsafe);
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buf;
+    private final int slotCount;
+    private final int slotSize;
+
+    private ChangeRing(RandomAccessFile file, MappedByteBuffer buf,
+                       int slotCount, int slotSize) {
+        this.file = file;
+        this.buf = buf;
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+    }
+
+    /**
+     * Create a new empty ring. If the file already holds a ring of the same
+     * geometry, it is reused in a new epoch without changing its length, so
+     * that readers having it open detect the restart of the writer. Only the
+     * writer process should create the ring.
+     *
+     * @param f file backing the ring
+     * @param slotCount number of changes kept in the ring
+     * @param slotSize size in bytes of a slot, including a 16 bytes header
+     * @return ring open for writing and reading
+     * @throws IOException if the file cannot be created or mapped, or if it
+     * holds a ring of another geometry
+     * @throws IllegalArgumentException if the geometry is invalid
+     */
+    public static ChangeRing create(File f, int slotCount, int slotSize)
+            throws IOException, IllegalArgumentException {
+        if(slotCount < 1 || slotSize <= SLOT_HEADER_SIZE)
+            throw new IllegalArgumentException(
+                    "Invalid ring geometry: " + slotCount + " slots of " +
+                    slotSize + " bytes!");
+
+        long size = HEADER_SIZE + (long) slotCount * slotSize;
+        RandomAccessFile raf = new RandomAccessFile(f, "rw");
+        try {
+            boolean existing = false;
+            if(raf.length() >= HEADER_SIZE) {
+                MappedByteBuffer hdr = raf.getChannel().map(
+                        FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                existing = hdr.getInt(OFF_MAGIC) == MAGIC &&
+                        hdr.getInt(OFF_VERSION) == VERSION;
+                if(existing && (hdr.getInt(OFF_SLOT_COUNT) != slotCount ||
+                        hdr.getInt(OFF_SLOT_SIZE) != slotSize))
+                    throw new IOException(f + " holds a ring of another " +
+                            "geometry, delete it first!");
+            }
+            if(raf.length() < size)
+                raf.setLength(size);
+            MappedByteBuffer buf = raf.getChannel().map(
+                    FileChannel.MapMode.READ_WRITE, 0, size);
+            // Readers seeing the new epoch must see the sequence start over
+            int epoch = existing ? buf.getInt(OFF_EPOCH) + 1 : 1;
+            buf.putLong(OFF_WRITE_SEQ, 0);
+            storeFence();
+            buf.putInt(OFF_EPOCH, epoch);
+            if(!existing) {
+                buf.putInt(OFF_SLOT_COUNT, slotCount);
+                buf.putInt(OFF_SLOT_SIZE, slotSize);
+                buf.putInt(OFF_VERSION, VERSION);
+                storeFence();
+                buf.putInt(OFF_MAGIC, MAGIC);
+            }
+            return new ChangeRing(raf, buf, slotCount, slotSize);
+        } catch(IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open an existing ring created by the writer process.
+     *
+     * @param f file backing the ring
+     * @return ring open for reading
+     * @throws IOException if the file cannot be mapped or is not a ring
+     */
+    public static ChangeRing open(File f) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(f, "r");
+        try {
+            if(raf.length() < HEADER_SIZE)
+                throw new IOException(f + " is not a change ring!");
+            MappedByteBuffer hdr = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if(hdr.getInt(OFF_MAGIC) != MAGIC ||
+                    hdr.getInt(OFF_VERSION) != VERSION)
+                throw new IOException(f + " is not a change ring!");
+
+            int slotCount = hdr.getInt(OFF_SLOT_COUNT);
+            int slotSize = hdr.getInt(OFF_SLOT_SIZE);
+            long size = HEADER_SIZE + (long) slotCount * slotSize;
+            if(raf.length() < size)
+                throw new IOException(f + " is truncated!");
+            MappedByteBuffer buf = raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY, 0, size);
+            return new ChangeRing(raf, buf, slotCount, slotSize);
+        } catch(IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of changes kept in the ring
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return epoch of the ring, incremented each time the writer creates it
+     */
+    public int getEpoch() {
+        int epoch = buf.getInt(OFF_EPOCH);
+        loadFence();
+        return epoch;
+    }
+
+    /**
+     * @return number of changes published so far in the current epoch, which
+     * is also the sequence number of the next change
+     */
+    public long getWriteSequence() {
+        long seq = buf.getLong(OFF_WRITE_SEQ);
+        loadFence();
+        return seq;
+    }
+
+    /**
+     * Publish the change of a variable.
+     *
+     * @param key key of the variable
+     * @param value textual representation of the new value, may be null
+     * @return sequence number of the change
+     * @throws IllegalArgumentException if the change does not fit in a slot
+     * @throws java.nio.ReadOnlyBufferException if the ring was opened for
+     * reading only
+     */
+    public synchronized long publish(String key, String value)
+            throws IllegalArgumentException {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        int len = 8 + k.length + (v == null ? 0 : v.length);
+        if(SLOT_HEADER_SIZE + len > slotSize)
+            throw new IllegalArgumentException(
+                    "Change of " + key + " does not fit in a slot of " +
+                    slotSize + " bytes!");
+
+        long seq = getWriteSequence();
+        int off = offsetOf(seq);
+        buf.putLong(off, WRITING);
+        storeFence();
+        int p = off + SLOT_HEADER_SIZE;
+        buf.putInt(p, k.length);
+        p += 4;
+        for(byte b : k)
+            buf.put(p++, b);
+        buf.putInt(p, v == null ? -1 : v.length);
+        p += 4;
+        if(v != null) {
+            for(byte b : v)
+                buf.put(p++, b);
+        }
+        buf.putInt(off + 8, len);
+        buf.putInt(off + 12, getEpoch());
+        storeFence();
+        buf.putLong(off, seq + 1);
+        storeFence();
+        buf.putLong(OFF_WRITE_SEQ, seq + 1);
+        return seq;
+    }
+
+    /**
+     * Read a change published in the current epoch.
+     *
+     * @param seq sequence number of the change
+     * @return change, null if it was not published yet or was overwritten by
+     * a more recent change
+     */
+    public Change read(long seq) {
+        return read(getEpoch(), seq);
+    }
+
+    /**
+     * Read a change published in an epoch.
+     *
+     * @param epoch epoch in which the change was published
+     * @param seq sequence number of the change
+     * @return change, null if it was not published yet or was overwritten by
+     * a more recent change
+     */
+    Change read(int epoch, long seq) {
+        int off = offsetOf(seq);
+        if(buf.getLong(off) != seq + 1)
+            return null;
+        loadFence();
+
+        int len = buf.getInt(off + 8);
+        int slotEpoch = buf.getInt(off + 12);
+        if(slotEpoch != epoch || len < 8 || SLOT_HEADER_SIZE + len > slotSize)
+            return null;
+        byte[] payload = new byte[len];
+        for(int i = 0; i < len; ++i)
+            payload[i] = buf.get(off + SLOT_HEADER_SIZE + i);
+        loadFence();
+        if(buf.getLong(off) != seq + 1)
+            return null;
+        // The same sequence number may have been written again in a new epoch
+        loadFence();
+        if(buf.getInt(off + 12) != epoch)
+            return null;
+
+        int kLen = readInt(payload, 0);
+        if(kLen < 0 || 8 + kLen > len)
+            return null;
+        String key = new String(payload, 4, kLen, StandardCharsets.UTF_8);
+        int vLen = readInt(payload, 4 + kLen);
+        if(8 + kLen + vLen > len)
+            return null;
+        String value = vLen < 0 ? null :
+                new String(payload, 8 + kLen, vLen, StandardCharsets.UTF_8);
+        return new Change(seq, key, value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private static void loadFence() {
+        try {
+            LOAD_FENCE.invokeExact();
+        } catch(Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    private static void storeFence() {
+        try {
+            STORE_FENCE.invokeExact();
+        } catch(Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    private int offsetOf(long seq) {
+        return HEADER_SIZE + (int) (seq % slotCount) * slotSize;
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return ((b[off] & 0xFF) << 24) | ((b[off + 1] & 0xFF) << 16) |
+               ((b[off + 2] & 0xFF) << 8) | (b[off + 3] & 0xFF);
+    }
+
+    /**
+     * Change of a variable read from the ring
+     */
+    public static final class Change {
+        private final long sequence;
+        private final String key;
+        private final String value;
+
+        Change(long sequence, String key, String value) {
+            this.sequence = sequence;
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * @return sequence number of the change
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return key of the changed variable
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return textual representation of the new value, may be null
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mystie.lightconfig.ipc;
+
+import com.mystie.lightconfig.ConfigTemplate;
+import com.mystie.lightconfig.Configurable;
+import com.mystie.lightconfig.Configuration;
+import com.mystie.lightconfig.Values;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader of a {@link ChangeRing} applying the published changes to a
+ * configuration.<br>
+ * A tailer only sees the changes published after its creation. If it falls
+ * behind by more than the capacity of the ring, the overwritten changes are
+ * counted as missed, in which case the configuration should be loaded again
+ * to catch up. When the writer creates the ring again, the tailer starts
+ * over with the changes of the new epoch. Changes which cannot be applied,
+ * such as changes of unknown variables or values violating the constraints
+ * of a variable, are skipped and counted as rejected without preventing the
+ * other changes from being applied.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChangeTailer {
+    private final ChangeRing ring;
+    private final Configuration cfg;
+    private int epoch;
+    private long next;
+    private long missed;
+    private long rejected;
+
+    /**
+     * @param ring ring to read changes from
+     * @param cfg configuration to which changes are applied
+     */
+    public ChangeTailer(ChangeRing ring, Configuration cfg) {
+        this.ring = ring;
+        this.cfg = cfg;
+        this.epoch = ring.getEpoch();
+        this.next = ring.getWriteSequence();
+    }
+
+    /**
+     * Apply all the changes published since the last poll to the owner of the
+     * configuration, as a single batch.
+     *
+     * @return number of changes applied
+     * @see Configurable#batch(java.util.function.Consumer)
+     */
+    public synchronized int poll() {
+        List<ChangeRing.Change> changes = new ArrayList<>();
+        int e = ring.getEpoch();
+        if(e != epoch) {
+            epoch = e;
+            next = 0;
+        }
+        long head = ring.getWriteSequence();
+        while(next < head) {
+            long oldest = head - ring.getSlotCount();
+            if(next < oldest) {
+                missed += oldest - next;
+                next = oldest;
+            }
+            ChangeRing.Change c = ring.read(epoch, next);
+            if(c == null) {
+                // Overwritten while reading, look for the new oldest change
+                long h = ring.getWriteSequence();
+                if(h == head) {
+                    ++missed;
+                    ++next;
+                }
+                head = h;
+                continue;
+            }
+            changes.add(c);
+            ++next;
+        }
+        if(ring.getEpoch() != epoch) {
+            // Restarted while reading, the changes may belong to either epoch
+            return poll();
+        }
+        if(changes.isEmpty())
+            return 0;
+
+        Configurable<?> owner = cfg.getOwner();
+        ConfigTemplate tpl = ConfigTemplate.of(owner.getClass());
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for(ChangeRing.Change c : changes) {
+            ConfigTemplate.Slot s = tpl.getSlot(c.getKey());
+            Object val = s == null || cfg.getVar(s) == null ? null :
+                    Values.fromString(cfg, c.getKey(), c.getValue());
+            if(s == null || (val == null && c.getValue() != null) ||
+                    !s.accepts(val)) {
+                ++rejected;
+                continue;
+            }
+            keys.add(c.getKey());
+            values.add(val);
+        }
+        if(keys.isEmpty())
+            return 0;
+
+        boolean applied = owner.batch(b -> {
+            for(int i = 0; i < keys.size(); ++i)
+                b.set(keys.get(i), values.get(i));
+        });
+        if(applied)
+            return keys.size();
+
+        // Apply the changes one by one so that a failure only loses itself
+        int count = 0;
+        for(int i = 0; i < keys.size(); ++i) {
+            if(owner.setAndUpdate(keys.get(i), values.get(i)))
+                ++count;
+            else
+                ++rejected;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of changes overwritten before this tailer could read them
+     */
+    public synchronized long getMissed() {
+        return missed;
+    }
+
+    /**
+     * @return number of changes read by this tailer which could not be
+     * applied to the configuration
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+}
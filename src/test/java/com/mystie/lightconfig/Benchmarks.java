@@ -0,0 +1,64 @@
+package com.mystie.lightconfig;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measurement helpers shared by the benchmarks. Each operation is run a
+ * number of times to warm up before being measured over the same number of
+ * runs on the calling thread. Durations are the best of several rounds, to
+ * leave out pauses caused by other threads or the collector.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+final class Benchmarks {
+    private static final int ROUNDS = 5;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)
+                    ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {}
+
+    /**
+     * @return true if the allocations of a thread can be measured
+     */
+    static boolean canMeasureAllocations() {
+        return THREADS.isThreadAllocatedMemorySupported() &&
+                THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @param runs number of runs of the operation
+     * @param op operation to be measured
+     * @return average number of bytes allocated by a run
+     */
+    static double bytesPerRun(int runs, Runnable op) {
+        repeat(runs, op);
+        long id = Thread.currentThread().getId();
+        long start = THREADS.getThreadAllocatedBytes(id);
+        repeat(runs, op);
+        return (double) (THREADS.getThreadAllocatedBytes(id) - start) / runs;
+    }
+
+    /**
+     * @param runs number of runs of the operation
+     * @param op operation to be measured
+     * @return average duration of a run in the best round, in nanoseconds
+     */
+    static double nanosPerRun(int runs, Runnable op) {
+        repeat(runs, op);
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r < ROUNDS; ++r) {
+            long start = System.nanoTime();
+            repeat(runs, op);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / runs;
+    }
+
+    private static void repeat(int runs, Runnable op) {
+        for(int i = 0; i < runs; ++i)
+            op.run();
+    }
+}
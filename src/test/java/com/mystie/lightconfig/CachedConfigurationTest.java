@@ -0,0 +1,236 @@
+package com.mystie.lightconfig;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class CachedConfigurationTest extends TestCase {
+    private static final long TTL = 100;
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+    private InProcessStore store;
+
+    protected void setUp() {
+        now.set(0);
+        refreshTasks.clear();
+        store = new InProcessStore();
+        for(String key : new String[]{"a", "b", "c"})
+            store.addVar(key, new ConfigVariable(String.class, key,
+                    () -> key.toUpperCase()));
+    }
+
+    public CachedConfigurationTest() {
+        super("Cached configuration test");
+    }
+
+    private CachedConfiguration cache(int maxSize, long refreshAfter) {
+        return new CachedConfiguration(store, maxSize, TTL, refreshAfter,
+                refreshTasks::add, now::get);
+    }
+
+    /**
+     * Test hits, misses and expiry of cached variables
+     */
+    public void testExpiry() {
+        CachedConfiguration cfg = cache(10, TTL);
+        ConfigVariable first = cfg.getVar("a");
+        assertEquals("A", first.getValue());
+        now.set(TTL - 1);
+        assertSame(first, cfg.getVar("a"));
+        assertEquals(1, store.lookups.get());
+
+        now.set(TTL);
+        assertNotNull(cfg.getVar("a"));
+        assertEquals(2, store.lookups.get());
+
+        CachedConfiguration.Stats stats = cfg.getStats();
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getHits());
+        assertEquals(0, stats.getRefreshes());
+        assertTrue(refreshTasks.isEmpty());
+    }
+
+    /**
+     * Test eviction of the least recently used variables
+     */
+    public void testEviction() {
+        CachedConfiguration cfg = cache(2, TTL);
+        cfg.getVar("a");
+        cfg.getVar("b");
+        cfg.getVar("a");
+        cfg.getVar("c");
+        assertEquals(2, cfg.size());
+        assertEquals(1, cfg.getStats().getEvictions());
+
+        int lookups = store.lookups.get();
+        cfg.getVar("a");
+        assertEquals(lookups, store.lookups.get());
+        cfg.getVar("b");
+        assertEquals(lookups + 1, store.lookups.get());
+    }
+
+    /**
+     * Test reloading in the background before expiry
+     */
+    public void testRefreshAhead() {
+        CachedConfiguration cfg = cache(10, TTL / 2);
+        ConfigVariable first = cfg.getVar("a");
+        now.set(TTL / 2);
+        assertSame(first, cfg.getVar("a"));
+        assertSame(first, cfg.getVar("a"));
+        assertEquals(1, refreshTasks.size());
+        assertEquals(1, cfg.getStats().getRefreshes());
+
+        ConfigVariable other = new ConfigVariable(String.class, "a", () -> "Z");
+        store.addVar("a", other);
+        refreshTasks.remove(0).run();
+        assertEquals(2, store.lookups.get());
+
+        // The reloaded variable is served until it expires in turn
+        now.set(TTL + 1);
+        assertSame(other, cfg.getVar("a"));
+        assertEquals(3, cfg.getStats().getHits());
+        assertEquals(1, cfg.getStats().getMisses());
+    }
+
+    /**
+     * Test that a lookup waiting on a reload which could not be started
+     * looks the variable up again
+     */
+    public void testRejectedRefresh() throws Exception {
+        List<ConfigVariable> waited = new CopyOnWriteArrayList<>();
+        CachedConfiguration[] cfg = new CachedConfiguration[1];
+        cfg[0] = new CachedConfiguration(store, 10, TTL, TTL / 2, task -> {
+            now.set(TTL + 1);
+            Thread waiter = new Thread(() -> waited.add(cfg[0].getVar("a")));
+            waiter.start();
+            try {
+                waiter.join(50);
+            } catch(InterruptedException ignored) {}
+            throw new RejectedExecutionException();
+        }, now::get);
+
+        ConfigVariable first = cfg[0].getVar("a");
+        now.set(TTL / 2);
+        assertSame(first, cfg[0].getVar("a"));
+        assertEquals(0, cfg[0].getStats().getRefreshes());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while(waited.isEmpty() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(1, waited.size());
+        assertSame(first, waited.get(0));
+    }
+
+    /**
+     * Test that concurrent misses result in a single lookup
+     */
+    public void testSingleFlight() throws Exception {
+        CachedConfiguration cfg = cache(10, TTL);
+        store.gate = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ConfigVariable>> results = new ArrayList<>();
+            for(int i = 0; i < 8; ++i)
+                results.add(pool.submit(() -> cfg.getVar("b")));
+            Thread.sleep(50);
+            store.gate.countDown();
+            for(Future<ConfigVariable> f : results)
+                assertSame(store.getVar("b"), f.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+        // The lookup above is made directly on the store
+        assertEquals(1 + 8, store.lookups.get());
+        CachedConfiguration.Stats stats = cfg.getStats();
+        assertEquals(8, stats.getHits() + stats.getMisses());
+    }
+
+    /**
+     * Test missing keys and invalidation through the configuration
+     */
+    public void testInvalidation() {
+        CachedConfiguration cfg = cache(10, TTL);
+        assertNull(cfg.getVar("missing"));
+        assertEquals(0, cfg.size());
+
+        cfg.getVar("a");
+        assertNotNull(cfg.removeVar("a"));
+        assertNull(cfg.getVar("a"));
+
+        cfg.getVar("b");
+        assertTrue(cfg.load());
+        assertEquals(0, cfg.size());
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), cfg.getKeys());
+    }
+
+    /**
+     * Test that invalid bounds are rejected
+     */
+    public void testInvalidArguments() {
+        try {
+            new CachedConfiguration(store, 0, 1, TimeUnit.SECONDS);
+            fail("Empty cache must be rejected");
+        } catch(IllegalArgumentException ignored) {}
+        try {
+            new CachedConfiguration(store, 1, 0, TimeUnit.SECONDS);
+            fail("Null time to live must be rejected");
+        } catch(IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * Stand-in for a remote store, counting the lookups and optionally
+     * holding them until released
+     */
+    private static class InProcessStore extends MapConfiguration {
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile CountDownLatch gate;
+
+        InProcessStore() {
+            super(new Configurable<Configuration>() {
+                @Override public Configuration getConfiguration() {
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public ConfigVariable getVar(String key) {
+            lookups.incrementAndGet();
+            CountDownLatch g = gate;
+            if(g != null) {
+                try {
+                    g.await();
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.getVar(key);
+        }
+
+        @Override public boolean copyFrom(Configuration oConfig) {
+            return false;
+        }
+
+        @Override public boolean save() {
+            return true;
+        }
+
+        @Override public boolean load() {
+            return true;
+        }
+
+        @Override public boolean delete() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.XmlConfigFile;
+import com.mystie.lightconfig.ipc.ChangePublisher;
+import com.mystie.lightconfig.ipc.ChangeRing;
+import com.mystie.lightconfig.ipc.ChangeTailer;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer and reader use separate mappings of the same file, as they would in
+ * separate processes, or actual separate processes.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ChangeRingTest extends TestCase {
+    private File ringFile;
+    private ChangeRing writerRing;
+    private ChangeRing readerRing;
+
+    protected void setUp() throws IOException {
+        ringFile = File.createTempFile("light-config", ".ring");
+        writerRing = ChangeRing.create(ringFile, 4, 64);
+        readerRing = ChangeRing.open(ringFile);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        writerRing.close();
+        readerRing.close();
+        assertTrue(ringFile.delete());
+    }
+
+    public ChangeRingTest() {
+        super("Change ring test");
+    }
+
+    /**
+     * Test that changes made by the writer are applied by the reader
+     */
+    public void testPublishAndTail() {
+        SharedComponent writer = new SharedComponent();
+        SharedComponent reader = new SharedComponent();
+        new ChangePublisher(writerRing).attach(writer.getConfiguration());
+        ChangeTailer tailer = new ChangeTailer(readerRing,
+                reader.getConfiguration());
+        assertEquals(0, tailer.poll());
+
+        assertTrue(writer.setAndUpdate("strVar", "Shared"));
+        assertTrue(writer.batch(b -> b.set("intVar", 5).set("nullVar", null)));
+        assertEquals(3, writerRing.getWriteSequence());
+        assertEquals(3, readerRing.getWriteSequence());
+
+        assertEquals(3, tailer.poll());
+        assertEquals("Shared", reader.strVar);
+        assertEquals(5, reader.intVar);
+        assertNull(reader.nullVar);
+        assertEquals(5, reader.getConfiguration().getVar("intVar").getValue());
+        assertEquals(0, tailer.poll());
+        assertEquals(0, tailer.getMissed());
+    }
+
+    /**
+     * Test that a reader falling behind skips the overwritten changes
+     */
+    public void testLapped() {
+        SharedComponent reader = new SharedComponent();
+        ChangeTailer tailer = new ChangeTailer(readerRing,
+                reader.getConfiguration());
+        for(int i = 0; i < 10; ++i)
+            writerRing.publish("intVar", Integer.toString(i));
+
+        assertEquals(4, tailer.poll());
+        assertEquals(6, tailer.getMissed());
+        assertEquals(9, reader.intVar);
+        assertNull(readerRing.read(0));
+        assertEquals("6", readerRing.read(6).getValue());
+    }
+
+    /**
+     * Test that changes which cannot be applied do not prevent the others
+     * from being applied
+     */
+    public void testRejected() {
+        SharedComponent reader = new SharedComponent();
+        ChangeTailer tailer = new ChangeTailer(readerRing,
+                reader.getConfiguration());
+        writerRing.publish("intVar", "42");
+        writerRing.publish("boundVar", "99");
+        writerRing.publish("unknownVar", "1");
+        writerRing.publish("intVar", "NaN");
+
+        assertEquals(1, tailer.poll());
+        assertEquals(42, reader.intVar);
+        assertEquals(1, reader.boundVar);
+        assertEquals(3, tailer.getRejected());
+        assertEquals(0, tailer.getMissed());
+    }
+
+    /**
+     * Test that a tailer follows the writer when it creates the ring again
+     */
+    public void testWriterRestart() throws IOException {
+        SharedComponent reader = new SharedComponent();
+        ChangeTailer tailer = new ChangeTailer(readerRing,
+                reader.getConfiguration());
+        for(int i = 0; i < 3; ++i)
+            writerRing.publish("intVar", Integer.toString(i));
+        assertEquals(3, tailer.poll());
+        long length = ringFile.length();
+
+        writerRing.close();
+        writerRing = ChangeRing.create(ringFile, 4, 64);
+        assertEquals(length, ringFile.length());
+        assertEquals(2, readerRing.getEpoch());
+        assertNull(readerRing.read(0));
+
+        writerRing.publish("strVar", "Restarted");
+        assertEquals(1, tailer.poll());
+        assertEquals("Restarted", reader.strVar);
+        assertEquals(0, tailer.getMissed());
+
+        writerRing.close();
+        try {
+            writerRing = ChangeRing.create(ringFile, 8, 64);
+            fail("Ring of another geometry must not be replaced");
+        } catch(IOException ignored) {
+            writerRing = ChangeRing.create(ringFile, 4, 64);
+        }
+    }
+
+    /**
+     * Test that changes published by another JVM are never read torn and
+     * that the last one is applied
+     */
+    public void testSeparateProcess() throws Exception {
+        SharedComponent reader = new SharedComponent();
+        ChangeTailer tailer = new ChangeTailer(readerRing,
+                reader.getConfiguration());
+        int count = 20000;
+        Process writer = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" +
+                File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                RingWriter.class.getName(), ringFile.getPath(),
+                Integer.toString(count)).inheritIO().start();
+        try {
+            while(writer.isAlive()) {
+                long head = readerRing.getWriteSequence();
+                for(long seq = Math.max(0, head - 4); seq < head; ++seq) {
+                    ChangeRing.Change c = readerRing.read(seq);
+                    if(c != null)
+                        assertConsistent(c.getValue());
+                }
+                tailer.poll();
+                assertConsistent(reader.strVar);
+            }
+            assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+            assertEquals(0, writer.exitValue());
+        } finally {
+            writer.destroy();
+        }
+
+        assertEquals(2, readerRing.getEpoch());
+        assertEquals(count, readerRing.getWriteSequence());
+        tailer.poll();
+        assertEquals((count - 1) + ":" + (count - 1), reader.strVar);
+    }
+
+    private static void assertConsistent(String value) {
+        if(value.equals("Hello")) return;
+        int sep = value.indexOf(':');
+        assertEquals(value, value.substring(0, sep),
+                value.substring(sep + 1));
+    }
+
+    /**
+     * Test the limits of a ring
+     */
+    public void testLimits() {
+        try {
+            writerRing.publish("intVar",
+                    "This value is much too long to fit in a slot");
+            fail("Change larger than a slot must be rejected");
+        } catch(IllegalArgumentException ignored) {}
+        try {
+            readerRing.publish("intVar", "1");
+            fail("Reader must not publish");
+        } catch(java.nio.ReadOnlyBufferException ignored) {}
+        try {
+            ChangeRing.open(new File(ringFile.getPath() + ".missing"));
+            fail("Missing ring must not be opened");
+        } catch(IOException ignored) {}
+    }
+
+    /**
+     * Writer process creating the ring again and publishing changes whose
+     * value repeats their index, so that torn reads can be detected
+     */
+    public static class RingWriter {
+        public static void main(String[] args) throws IOException {
+            try(ChangeRing ring = ChangeRing.create(new File(args[0]), 4, 64)) {
+                int count = Integer.parseInt(args[1]);
+                for(int i = 0; i < count; ++i)
+                    ring.publish("strVar", i + ":" + i);
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class SharedComponent implements Configurable<ConfigFile> {
+        @Config public int intVar = 1;
+        @Config public String strVar = "Hello";
+        @Config public String nullVar = "Not null";
+        @Config(max = 10) public int boundVar = 1;
+
+        private final ConfigFile cfg = new XmlConfigFile(this,
+                System.getProperty("java.io.tmpdir") + File.separator +
+                "shared.xml");
+
+        @Override public ConfigFile getConfiguration() {
+            return cfg;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.CodecConfigFile;
+import com.mystie.lightconfig.format.CompressedCodec;
+import com.mystie.lightconfig.format.ConfigCodec;
+import com.mystie.lightconfig.format.XmlCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+
+/**
+ * Size, encoding time and decoding time of a large configuration persisted
+ * as plain XML, compared with the same XML compressed by a
+ * {@link CompressedCodec} at each compression level.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class CompressionBenchmark {
+    private static final int VARIABLES = 400;
+    private static final int RUNS = 100;
+    private static int plainSize;
+
+    public static void main(String[] args) {
+        System.out.println("Codec             bytes   ratio  encode (us)  " +
+                "decode (us)");
+        report("xml", new XmlCodec());
+        for(int level = Deflater.BEST_SPEED;
+                level <= Deflater.BEST_COMPRESSION; ++level)
+            report("xml+deflate/" + level,
+                    new CompressedCodec(new XmlCodec(), level));
+    }
+
+    private static void report(String name, ConfigCodec codec) {
+        Component owner = new Component();
+        CodecConfigFile cfg = new CodecConfigFile(owner, "bench.xml", codec);
+        for(int i = 0; i < VARIABLES; ++i) {
+            String key = "setting" + i;
+            String value = "Value of the setting number " + i;
+            cfg.addVar(key, new ConfigVariable(String.class, key,
+                    () -> value));
+        }
+
+        byte[] bytes = encode(codec, cfg);
+        if(plainSize == 0)
+            plainSize = bytes.length;
+        double encode = Benchmarks.nanosPerRun(RUNS,
+                () -> encode(codec, cfg));
+        double decode = Benchmarks.nanosPerRun(RUNS, () -> {
+            try {
+                codec.decode(cfg, new ByteArrayInputStream(bytes));
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        System.out.println(String.format("%-15s %7d %7.3f %12.1f %12.1f",
+                name, bytes.length, (double) bytes.length / plainSize,
+                encode / 1e3, decode / 1e3));
+    }
+
+    private static byte[] encode(ConfigCodec codec, CodecConfigFile cfg) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            codec.encode(cfg, out);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unused")
+    private static class Component implements Configurable<ConfigFile> {
+        @Config public int intVar = 1;
+        @Config public String strVar = "Hello";
+        @Config public double dblVar = 2.5;
+
+        @Override public ConfigFile getConfiguration() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.*;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigCodecTest extends TestCase {
+    public final String CFG_FOLDER = System.getProperty("user.home") +
+            File.separator + ".unittests" + File.separator +
+            "light-config-codec" + File.separator;
+
+    @Override
+    protected void tearDown() {
+        File dir = new File(CFG_FOLDER);
+        File[] files = dir.listFiles();
+        if(files != null) {
+            for(File f : files)
+                assertTrue(f.delete());
+        }
+        assertTrue(!dir.exists() || dir.delete());
+    }
+
+    public ConfigCodecTest() {
+        super("Configuration codec test");
+    }
+
+    /**
+     * Test discovery of the codecs through the service loader
+     */
+    public void testDiscovery() {
+        assertTrue(ConfigCodecs.forName("xml") instanceof XmlCodec);
+        assertTrue(ConfigCodecs.forName("JSON") instanceof JsonCodec);
+        assertTrue(ConfigCodecs.forFile(new File("a.properties"))
+                instanceof PropertiesCodec);
+        assertNull(ConfigCodecs.forFile(new File("a.unknown")));
+        assertNull(ConfigCodecs.forFile(new File("noextension")));
+    }
+
+    public void testJsonRoundTrip() {
+        roundTrip("roundTrip.json");
+    }
+
+    public void testPropertiesRoundTrip() {
+        roundTrip("roundTrip.properties");
+    }
+
+    public void testXmlRoundTrip() {
+        roundTrip("roundTrip.xml");
+    }
+
+    /**
+     * Test that the JSON codec writes only key-value pairs
+     */
+    public void testJsonContent() throws IOException {
+        CodecComponent c = new CodecComponent(CFG_FOLDER + "content.json");
+        c.strVar = "Quote \" and\nnew line";
+        c.updateAll();
+        assertTrue(c.save());
+        String json = new String(Files.readAllBytes(
+                c.getConfiguration().getFile().toPath()),
+                StandardCharsets.UTF_8);
+        assertEquals("{\n" +
+                "  \"intVar\": 1,\n" +
+                "  \"dblVar\": 2.5,\n" +
+                "  \"boolVar\": true,\n" +
+                "  \"strVar\": \"Quote \\\" and\\nnew line\",\n" +
+                "  \"chrVar\": \"c\",\n" +
+                "  \"enumVar\": \"SECOND\"\n" +
+                "}\n", json);
+    }
+
+    /**
+     * Test that unknown keys are ignored and malformed files are not loaded
+     */
+    public void testJsonDecode() throws IOException {
+        CodecComponent c = new CodecComponent(CFG_FOLDER + "decode.json");
+        File f = c.getConfiguration().getFile();
+        assertTrue(f.getParentFile().mkdirs());
+
+        write(f, "{ \"unknown\" : 3, \"intVar\":42 ,\"strVar\" : null }");
+        assertTrue(c.load());
+        assertEquals(42, c.intVar);
+        assertNull(c.strVar);
+
+        // Null is not assignable to a primitive field
+        write(f, "{ \"intVar\": null, \"strVar\": \"Hello\" }");
+        assertTrue(c.load());
+        assertEquals(42, c.intVar);
+        assertEquals("Hello", c.strVar);
+
+        write(f, "{ \"intVar\": 7, ");
+        assertFalse(c.load());
+        write(f, "{ \"intVar\": [7] }");
+        assertFalse(c.load());
+        assertEquals(42, c.intVar);
+    }
+
+    /**
+     * Test compression and integrity verification of a configuration
+     */
+    public void testCompressed() throws IOException {
+        roundTrip("roundTrip.xml.z", new CompressedCodec(new XmlCodec(), 9));
+
+        CodecComponent plain = new CodecComponent(CFG_FOLDER + "plain.xml");
+        assertTrue(plain.save());
+        CodecComponent c = new CodecComponent(CFG_FOLDER + "compressed.xml.z",
+                new CompressedCodec(new XmlCodec()));
+        assertTrue(c.save());
+        File f = c.getConfiguration().getFile();
+        long plainLength = plain.getConfiguration().getFile().length();
+        assertTrue(f.length() < plainLength);
+        for(int level = 1; level <= 9; ++level) {
+            CodecComponent l = new CodecComponent(CFG_FOLDER + "level.xml.z",
+                    new CompressedCodec(new XmlCodec(), level));
+            assertTrue(l.save());
+            assertTrue(l.getConfiguration().getFile().length() < plainLength);
+            assertTrue(l.load());
+        }
+
+        // Corrupted byte in the compressed data
+        byte[] bytes = Files.readAllBytes(f.toPath());
+        c.intVar = 2;
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(f.toPath(), bytes);
+        assertFalse(c.load());
+        assertEquals(2, c.intVar);
+
+        // Truncated file
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(f.toPath(), Arrays.copyOf(bytes, bytes.length - 2));
+        assertFalse(c.load());
+        assertEquals(2, c.intVar);
+
+        Files.write(f.toPath(), bytes);
+        assertTrue(c.load());
+        assertEquals(1, c.intVar);
+    }
+
+    /**
+     * Test concurrent preloading of several configurations
+     */
+    public void testPreload() throws IOException, InterruptedException {
+        String[] names = { "pre1.xml", "pre2.json", "pre3.properties" };
+        for(int i = 0; i < names.length; ++i) {
+            CodecComponent c = new CodecComponent(CFG_FOLDER + names[i]);
+            c.intVar = 10 + i;
+            c.updateAll();
+            assertTrue(c.save());
+        }
+        CodecComponent corrupted = new CodecComponent(CFG_FOLDER + "pre4.json");
+        write(corrupted.getConfiguration().getFile(), "{ \"intVar\": ");
+
+        ConfigPreloader loader = new ConfigPreloader();
+        List<CodecComponent> components = new ArrayList<>();
+        for(String name : names) {
+            CodecComponent c = new CodecComponent(CFG_FOLDER + name);
+            components.add(c);
+            loader.register(c);
+        }
+        CodecComponent missing = new CodecComponent(CFG_FOLDER + "pre5.json");
+        loader.register(corrupted).register(missing);
+
+        ConfigPreloader.Report report = loader.preload();
+        for(int i = 0; i < names.length; ++i) {
+            assertEquals(10 + i, components.get(i).intVar);
+            assertEquals(10 + i, components.get(i).getConfiguration()
+                    .getVar("intVar").getValue());
+        }
+        assertTrue(missing.getConfiguration().getFile().isFile());
+        assertFalse(report.isSuccessful());
+        assertEquals(5, report.getResults().size());
+        assertEquals(2, report.getSlowest(2).size());
+        assertTrue(report.getWallNanos() > 0);
+
+        Map<String, ConfigPreloader.Status> status = new HashMap<>();
+        for(ConfigPreloader.Result r : report.getResults())
+            status.put(r.getFile().getName(), r.getStatus());
+        assertEquals(ConfigPreloader.Status.LOADED, status.get("pre1.xml"));
+        assertEquals(ConfigPreloader.Status.FAILED, status.get("pre4.json"));
+        assertEquals(ConfigPreloader.Status.SAVED, status.get("pre5.json"));
+    }
+
+    /**
+     * Test that a codec failing with an error does not block the preloading
+     */
+    public void testPreloadError() throws IOException, InterruptedException {
+        CodecComponent ok = new CodecComponent(CFG_FOLDER + "ok.json");
+        assertTrue(ok.save());
+        CodecComponent failing = new CodecComponent(CFG_FOLDER + "error.json",
+                new JsonCodec() {
+                    @Override
+                    public Map<String, Object> decode(Configuration cfg,
+                            java.io.InputStream in) {
+                        throw new StackOverflowError("Decoding failed");
+                    }
+                });
+        assertTrue(failing.save());
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<ConfigPreloader.Report> f = caller.submit(() ->
+                    new ConfigPreloader(pool).register(ok).register(failing)
+                            .preload());
+            ConfigPreloader.Report report = f.get(10, TimeUnit.SECONDS);
+            assertFalse(report.isSuccessful());
+            Map<String, ConfigPreloader.Status> status = new HashMap<>();
+            for(ConfigPreloader.Result r : report.getResults())
+                status.put(r.getFile().getName(), r.getStatus());
+            assertEquals(ConfigPreloader.Status.LOADED, status.get("ok.json"));
+            assertEquals(ConfigPreloader.Status.FAILED,
+                    status.get("error.json"));
+        } catch(ExecutionException | TimeoutException e) {
+            fail("Preloading must complete: " + e);
+        } finally {
+            caller.shutdownNow();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test that a null value is restored as null by both JSON and XML
+     */
+    public void testNullRoundTrip() {
+        for(String fileName : new String[]{"null.json", "null.xml"}) {
+            String path = CFG_FOLDER + fileName;
+            CodecComponent c1 = new CodecComponent(path);
+            c1.strVar = null;
+            c1.updateAll();
+            assertTrue(c1.save());
+
+            CodecComponent c2 = new CodecComponent(path);
+            assertTrue(c2.load());
+            assertNull(fileName, c2.strVar);
+            assertNull(c2.getConfiguration().getVar("strVar").getValue());
+            assertTrue(c2.delete());
+        }
+    }
+
+    private void roundTrip(String fileName) {
+        roundTrip(fileName, null);
+    }
+
+    private void roundTrip(String fileName, ConfigCodec codec) {
+        String path = CFG_FOLDER + fileName;
+        CodecComponent c1 = new CodecComponent(path, codec);
+        c1.intVar = -5;
+        c1.dblVar = Double.NaN;
+        c1.boolVar = false;
+        c1.strVar = "Modified = \"value\"";
+        c1.chrVar = 'z';
+        c1.enumVar = Level.THIRD;
+        c1.updateAll();
+        assertTrue(c1.save());
+
+        CodecComponent c2 = new CodecComponent(path, codec);
+        assertTrue(c2.load());
+        assertEquals(-5, c2.intVar);
+        assertTrue(Double.isNaN(c2.dblVar));
+        assertFalse(c2.boolVar);
+        assertEquals("Modified = \"value\"", c2.strVar);
+        assertEquals('z', c2.chrVar);
+        assertEquals(Level.THIRD, c2.enumVar);
+        assertEquals(-5, c2.getConfiguration().getVar("intVar").getValue());
+        assertTrue(c2.delete());
+    }
+
+    private static void write(File f, String content) throws IOException {
+        try(FileOutputStream out = new FileOutputStream(f)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    enum Level { FIRST, SECOND, THIRD }
+
+    @SuppressWarnings("unused")
+    private static class CodecComponent implements Configurable<ConfigFile> {
+        @Config public int intVar = 1;
+        @Config public double dblVar = 2.5;
+        @Config public boolean boolVar = true;
+        @Config public String strVar = "Hello";
+        @Config public char chrVar = 'c';
+        @Config public Level enumVar = Level.SECOND;
+
+        private final ConfigFile cfg;
+
+        public CodecComponent(String path) {
+            cfg = new CodecConfigFile(this, path);
+        }
+
+        public CodecComponent(String path, ConfigCodec codec) {
+            cfg = codec == null ? new CodecConfigFile(this, path)
+                                : new CodecConfigFile(this, path, codec);
+        }
+
+        @Override public ConfigFile getConfiguration() {
+            return cfg;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import junit.framework.TestCase;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.*;
 
 /**
  * @author Samuel Longchamps
@@ -167,6 +168,43 @@ public class ConfigFileTest extends TestCase {
         }
     }
 
+    /**
+     * Test access to variables by slot
+     */
+    public void testSlots() {
+        MapConfiguration cfg = (MapConfiguration) panel.getConfiguration();
+        assertEquals(6, cfg.size());
+        int i = 0;
+        for(String key : cfg.getKeys()) {
+            assertEquals(i, cfg.slotOf(key));
+            assertSame(cfg.getVar(key), cfg.getVar(i));
+            ++i;
+        }
+        assertEquals(-1, cfg.slotOf("notCfgVar"));
+        assertNull(cfg.getVar("notCfgVar"));
+        assertNull(cfg.getVar(new String("notCfgVar")));
+        assertSame(cfg.getVar("strVar"), cfg.getVar(new String("strVar")));
+
+        ConfigTemplate tpl = ConfigTemplate.of(ConfiguredPanel.class);
+        for(ConfigTemplate.Slot s : tpl.getSlots())
+            assertSame(cfg.getVar(s.getKey()), cfg.getVar(s));
+
+        ConfigVariable removed = cfg.removeVar("intVar");
+        assertNotNull(removed);
+        assertEquals(5, cfg.size());
+        assertNull(cfg.getVar("intVar"));
+        assertNotNull(cfg.getVar("fltLblVal"));
+        cfg.addVar("intVar", removed);
+        assertEquals(5, cfg.slotOf("intVar"));
+        // Slots no longer follow the template
+        for(ConfigTemplate.Slot s : tpl.getSlots())
+            assertSame(cfg.getVar(s.getKey()), cfg.getVar(s));
+        try {
+            cfg.getVar(6);
+            fail("Slot out of range must not be accessible");
+        } catch(IndexOutOfBoundsException ignored) {}
+    }
+
     /**
      * Test mass update of variables all at once
      */
@@ -197,6 +235,74 @@ public class ConfigFileTest extends TestCase {
         panel.updateAll();
     }
 
+    /**
+     * Test batch update of variables with a single notification per variable
+     */
+    public void testBatch() {
+        ConfigFile cfg = panel.getConfiguration();
+        List<Object> events = new ArrayList<>();
+        cfg.observeAll((o, arg) -> events.add(arg));
+
+        assertTrue(panel.batch(b -> b
+                .set("intVar", 5)
+                .set("strVar", "Batched")
+                .set("intVar", 6)
+                .set("doubleVar", panel.doubleVar)));
+        assertEquals(6, panel.intVar);
+        assertEquals("Batched", panel.strVar);
+        assertEquals(6, cfg.getVar("intVar").getValue());
+        assertEquals("Batched", cfg.getVar("strVar").getValue());
+        assertEquals(1, events.size());
+        assertEquals(new HashSet<>(Arrays.asList("intVar", "strVar")),
+                events.get(0));
+
+        // Invalid type: nothing applied
+        events.clear();
+        assertFalse(panel.batch(b -> b
+                .set("intVar", 7)
+                .set("strVar", 8)));
+        assertEquals(6, panel.intVar);
+        assertEquals(6, cfg.getVar("intVar").getValue());
+
+        // Unknown field and failing edits: nothing applied
+        assertFalse(panel.batch(b -> b.set("notCfgVar", 1)));
+        assertFalse(panel.batch(b -> {
+            b.set("intVar", 7);
+            throw new IllegalStateException("Edits failed");
+        }));
+        assertEquals(6, panel.intVar);
+        assertTrue(events.isEmpty());
+
+        // Saved once
+        assertTrue(panel.batch(b -> b.set("intVar", 1), true));
+        assertTrue(cfg.getFile().isFile());
+        assertEquals(1, events.size());
+    }
+
+    /**
+     * Test that loading values does not leave them to be notified by the
+     * next mass update
+     */
+    public void testLoadNoEvents() {
+        panel.intVar = 9;
+        panel.strVar = "Saved value";
+        panel.updateAll();
+        assertTrue(panel.save());
+
+        ConfiguredPanel loaded = new ConfiguredPanel(
+                panel.getConfiguration().getFile().getPath());
+        assertTrue(loaded.load());
+        assertEquals(9, loaded.intVar);
+        List<Object> events = new ArrayList<>();
+        loaded.getConfiguration().observeAll((o, arg) -> events.add(arg));
+        loaded.updateAll();
+        assertTrue(events.isEmpty());
+
+        loaded.intVar = 10;
+        loaded.updateAll();
+        assertEquals(1, events.size());
+    }
+
     @SuppressWarnings("unused")
     private class ConfiguredPanel implements Configurable<ConfigFile> {
         public static final String lbl = "A primitive float value";
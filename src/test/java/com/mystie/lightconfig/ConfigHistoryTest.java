@@ -0,0 +1,140 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.CodecConfigFile;
+import com.mystie.lightconfig.format.XmlConfigFile;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigHistoryTest extends TestCase {
+    public final String CFG_PATH = System.getProperty("user.home") +
+            File.separator + ".unittests" + File.separator +
+            "light-config-history" + File.separator + "history.xml";
+
+    private HistoryComponent comp;
+    private ConfigHistory history;
+
+    protected void setUp() {
+        comp = new HistoryComponent();
+        history = new ConfigHistory(comp.getConfiguration(), 3);
+        ((CodecConfigFile) comp.getConfiguration()).setHistory(history);
+    }
+
+    @Override
+    protected void tearDown() {
+        assertTrue(comp.delete());
+        File dir = new File(CFG_PATH).getParentFile();
+        assertTrue(!dir.exists() || dir.delete());
+    }
+
+    public ConfigHistoryTest() {
+        super("Configuration history test");
+    }
+
+    /**
+     * Test versions recorded on save and their differences
+     */
+    public void testDiff() {
+        long v1 = history.getLatestVersion();
+        assertTrue(comp.save());
+        assertEquals(v1, history.getLatestVersion());
+
+        assertTrue(comp.batch(b -> b.set("intVar", 2).set("strVar", "Two")));
+        assertTrue(comp.save());
+        long v2 = history.getLatestVersion();
+        assertTrue(v2 > v1);
+
+        Map<String, Object> diff = history.diff(v1, v2);
+        assertEquals(2, diff.size());
+        assertEquals(2, diff.get("intVar"));
+        assertEquals("Two", diff.get("strVar"));
+        assertEquals(1, history.diff(v2, v1).get("intVar"));
+        assertTrue(history.diff(v2, v2).isEmpty());
+        assertEquals(1, history.getValue(v1, "intVar"));
+        assertEquals(2, history.getValue(v2, "intVar"));
+    }
+
+    /**
+     * Test rollback of the changed fields only
+     */
+    public void testRollback() {
+        long v1 = history.getLatestVersion();
+        comp.setAndUpdate("intVar", 5);
+        long v2 = history.record();
+
+        List<Object> events = new ArrayList<>();
+        comp.getConfiguration().observeAll((o, arg) -> events.add(arg));
+        assertTrue(history.rollback(v1));
+        assertEquals(1, comp.intVar);
+        assertEquals(1, comp.getConfiguration().getVar("intVar").getValue());
+        assertEquals(Collections.singleton("intVar"), events.get(0));
+        assertEquals(1, events.size());
+        assertTrue(history.getLatestVersion() > v2);
+    }
+
+    /**
+     * Test rollback to the oldest version while the history is full
+     */
+    public void testRollbackToOldest() {
+        comp.setAndUpdate("intVar", 2);
+        history.record();
+        comp.setAndUpdate("intVar", 3);
+        long oldest = history.getVersions().get(0);
+        assertEquals(3, history.record());
+        assertEquals(3, history.getVersions().size());
+
+        comp.setAndUpdate("intVar", 4);
+        comp.setAndUpdate("strVar", "Four");
+        assertTrue(history.rollback(oldest));
+        assertEquals(1, comp.intVar);
+        assertEquals("One", comp.strVar);
+        assertEquals(3, history.getVersions().size());
+    }
+
+    /**
+     * Test the bound and the sharing of unchanged values between versions
+     */
+    public void testBoundAndSharing() {
+        long v1 = history.getLatestVersion();
+        int chunks = (comp.getConfiguration().getKeys().size() +
+                ConfigHistory.CHUNK_SIZE - 1) / ConfigHistory.CHUNK_SIZE;
+        assertEquals(chunks, history.getRetainedChunks());
+
+        for(int i = 2; i <= 4; ++i) {
+            comp.setAndUpdate("intVar", i);
+            history.record();
+        }
+        assertEquals(3, history.getVersions().size());
+        assertFalse(history.getVersions().contains(v1));
+        try {
+            history.diff(v1, history.getLatestVersion());
+            fail("Discarded version must not be found");
+        } catch(IllegalArgumentException ignored) {}
+
+        // Only the chunk holding intVar is copied by each version
+        assertEquals(chunks + 2, history.getRetainedChunks());
+    }
+
+    @SuppressWarnings("unused")
+    private class HistoryComponent implements Configurable<ConfigFile> {
+        @Config public int intVar = 1;
+        @Config public String strVar = "One";
+        @Config public int v00, v01, v02, v03, v04, v05, v06, v07, v08, v09;
+        @Config public int v10, v11, v12, v13, v14, v15, v16, v17, v18, v19;
+        @Config public int v20, v21, v22, v23, v24, v25, v26, v27, v28, v29;
+        @Config public int v30, v31, v32, v33, v34, v35, v36, v37, v38, v39;
+
+        private final ConfigFile cfg = new XmlConfigFile(this, CFG_PATH);
+
+        @Override public ConfigFile getConfiguration() {
+            return cfg;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.CodecConfigFile;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+
+/**
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigSchemaTest extends TestCase {
+    public final String CFG_PATH = System.getProperty("user.home") +
+            File.separator + ".unittests" + File.separator +
+            "light-config-schema" + File.separator + "schema.json";
+
+    private SchemaComponent comp;
+
+    protected void setUp() {
+        comp = new SchemaComponent();
+    }
+
+    @Override
+    protected void tearDown() {
+        assertTrue(comp.delete());
+        File dir = new File(CFG_PATH).getParentFile();
+        assertTrue(!dir.exists() || dir.delete());
+    }
+
+    public ConfigSchemaTest() {
+        super("Configuration schema test");
+    }
+
+    /**
+     * Test constraints checked when setting a value
+     */
+    public void testSetConstraints() {
+        assertTrue(comp.setAndUpdate("level", 10));
+        assertFalse(comp.setAndUpdate("level", 11));
+        assertFalse(comp.setAndUpdate("level", -1));
+        assertFalse(comp.setAndUpdate("level", "5"));
+        assertEquals(10, comp.level);
+        assertEquals(10, comp.getConfiguration().getVar("level").getValue());
+
+        assertTrue(comp.setAndUpdate("name", "valid"));
+        assertFalse(comp.setAndUpdate("name", "Not valid"));
+        assertEquals("valid", comp.name);
+
+        assertFalse(comp.batch(b -> b.set("name", "other").set("level", 20)));
+        assertEquals("valid", comp.name);
+    }
+
+    /**
+     * Test defaults applied to missing and invalid loaded values
+     */
+    public void testLoadDefaults() throws IOException {
+        comp.level = 3;
+        comp.name = "custom";
+        File f = comp.getConfiguration().getFile();
+        assertTrue(f.getParentFile().mkdirs());
+        write(f, "{ \"level\": 50 }");
+        assertTrue(comp.load());
+        assertEquals(3, comp.level);
+        assertEquals("abc", comp.name);
+
+        write(f, "{ \"level\": 7, \"name\": \"UPPER\" }");
+        comp.name = "custom";
+        assertTrue(comp.load());
+        assertEquals(7, comp.level);
+        assertEquals("abc", comp.name);
+        assertEquals("abc", comp.getConfiguration().getVar("name").getValue());
+    }
+
+    /**
+     * Test the converter declared by a field
+     */
+    public void testConverter() throws IOException {
+        comp.timeout = Duration.ofMinutes(3);
+        comp.updateAll();
+        assertTrue(comp.save());
+        String json = new String(Files.readAllBytes(
+                comp.getConfiguration().getFile().toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"timeout\": \"PT3M\""));
+
+        SchemaComponent other = new SchemaComponent();
+        assertTrue(other.load());
+        assertEquals(Duration.ofMinutes(3), other.timeout);
+    }
+
+    /**
+     * Test that invalid schemas are rejected when compiled
+     */
+    public void testInvalidSchema() {
+        try {
+            ConfigTemplate.of(InvalidDefault.class);
+            fail("Default value violating the constraints must be rejected");
+        } catch(IllegalArgumentException ignored) {}
+        try {
+            ConfigTemplate.of(InvalidPattern.class);
+            fail("Invalid pattern must be rejected");
+        } catch(IllegalArgumentException ignored) {}
+    }
+
+    private static void write(File f, String content) throws IOException {
+        try(FileOutputStream out = new FileOutputStream(f)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static class DurationConverter implements ValueConverter<Duration> {
+        @Override public Duration fromString(String str) {
+            try {
+                return Duration.parse(str);
+            } catch(RuntimeException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        @Override public String toString(Duration val) {
+            return val.toString();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private class SchemaComponent implements Configurable<ConfigFile> {
+        @Config(min = 0, max = 10) public int level = 5;
+        @Config(pattern = "[a-z]+", defaultValue = "abc")
+                public String name = "abc";
+        @Config(converter = DurationConverter.class)
+                public Duration timeout = Duration.ofSeconds(30);
+
+        private final ConfigFile cfg = new CodecConfigFile(this, CFG_PATH);
+
+        @Override public ConfigFile getConfiguration() {
+            return cfg;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class InvalidDefault {
+        @Config(max = 10, defaultValue = "11") public int level;
+    }
+
+    @SuppressWarnings("unused")
+    private static class InvalidPattern {
+        @Config(pattern = "[a-z") public String name;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.XmlConfigFile;
+
+/**
+ * Allocations and time needed to give a configuration to a short-lived
+ * configurable instance, building a new {@link XmlConfigFile} for each
+ * instance as before the pool existed, compared with acquiring and releasing
+ * one from a {@link ConfigurationPool}.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigurationPoolBenchmark {
+    private static final int RUNS = 200_000;
+    private static final String PATH = "bench.xml";
+
+    public static void main(String[] args) {
+        ConfigurationPool<XmlConfigFile> pool = new ConfigurationPool<>(
+                owner -> new XmlConfigFile(owner, PATH), 1);
+        Component c = new Component();
+        Runnable fresh = () -> new XmlConfigFile(c, PATH);
+        Runnable pooled = () -> pool.release(pool.acquire(c));
+
+        System.out.println("Per instance    bytes        ns");
+        report("fresh", fresh);
+        report("pooled", pooled);
+    }
+
+    private static void report(String name, Runnable op) {
+        double bytes = Benchmarks.canMeasureAllocations() ?
+                Benchmarks.bytesPerRun(RUNS, op) : Double.NaN;
+        double nanos = Benchmarks.nanosPerRun(RUNS, op);
+        System.out.println(String.format("%-10s %10.1f %9.1f",
+                name, bytes, nanos));
+    }
+
+    /**
+     * Request-scoped component with a typical number of variables
+     */
+    @SuppressWarnings("unused")
+    static class Component implements Configurable<ConfigFile> {
+        @Config public int intVar = 1;
+        @Config public long longVar = 2;
+        @Config public double dblVar = 3.5;
+        @Config public boolean boolVar = true;
+        @Config public String strVar = "Hello";
+        @Config public String otherVar = "World";
+        @Config public int countVar = 10;
+        @Config public int sizeVar = 20;
+
+        @Override public ConfigFile getConfiguration() {
+            return null;
+        }
+    }
+}
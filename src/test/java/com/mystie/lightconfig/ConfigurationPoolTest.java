@@ -0,0 +1,172 @@
+package com.mystie.lightconfig;
+
+import com.mystie.lightconfig.annotation.Config;
+import com.mystie.lightconfig.format.XmlConfigFile;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConfigurationPoolTest extends TestCase {
+    public final String CFG_PATH = System.getProperty("user.home") +
+            File.separator + ".unittests" + File.separator +
+            "light-config" + File.separator + "pooled.xml";
+
+    private ConfigurationPool<XmlConfigFile> pool;
+
+    protected void setUp() {
+        pool = new ConfigurationPool<>(
+                owner -> new XmlConfigFile(owner, CFG_PATH), 4);
+    }
+
+    public ConfigurationPoolTest() {
+        super("Configuration pool test");
+    }
+
+    /**
+     * Test that a released configuration is reused with its variables
+     */
+    public void testReuse() {
+        PooledComponent c1 = new PooledComponent(pool, 1);
+        ConfigFile cfg = c1.getConfiguration();
+        ConfigVariable cv = cfg.getVar("intVar");
+        assertEquals(1, cv.getValue());
+        c1.release();
+        assertEquals(1, pool.available());
+        assertNull(cfg.getOwner());
+
+        PooledComponent c2 = new PooledComponent(pool, 2);
+        assertSame(cfg, c2.getConfiguration());
+        assertSame(cv, c2.getConfiguration().getVar("intVar"));
+        assertSame(c2, cfg.getOwner());
+        assertEquals(2, cv.getValue());
+        assertEquals(0, pool.available());
+
+        // Suppliers follow the new owner
+        c2.intVar = 3;
+        cv.update();
+        assertEquals(3, cv.getValue());
+    }
+
+    /**
+     * Test that the values taken from a new owner are not notified by its
+     * next mass update
+     */
+    public void testRebindNoEvents() {
+        new PooledComponent(pool, 1).release();
+        PooledComponent c2 = new PooledComponent(pool, 2);
+        List<Object> events = new ArrayList<>();
+        c2.getConfiguration().observeAll((o, arg) -> events.add(arg));
+        c2.updateAll();
+        assertTrue(events.isEmpty());
+    }
+
+    /**
+     * Test that updating a released configuration has no effect
+     */
+    public void testDetachedUpdate() {
+        PooledComponent c1 = new PooledComponent(pool, 1);
+        ConfigVariable cv = c1.getConfiguration().getVar("intVar");
+        c1.release();
+        c1.intVar = 5;
+        assertFalse(cv.update());
+        c1.updateAll();
+        assertEquals(1, cv.getValue());
+    }
+
+    /**
+     * Test that the history of a reused configuration does not hold the
+     * versions of its previous owner
+     */
+    public void testRebindHistory() {
+        PooledComponent c1 = new PooledComponent(pool, 1);
+        XmlConfigFile cfg = (XmlConfigFile) c1.getConfiguration();
+        ConfigHistory history = new ConfigHistory(cfg, 4);
+        cfg.setHistory(history);
+        long v1 = history.getLatestVersion();
+        c1.setAndUpdate("intVar", 7);
+        history.record();
+        c1.release();
+
+        PooledComponent c2 = new PooledComponent(pool, 2);
+        assertSame(cfg, c2.getConfiguration());
+        assertSame(history, cfg.getHistory());
+        assertEquals(1, history.getVersions().size());
+        assertEquals(2, history.getValue(history.getLatestVersion(),
+                "intVar"));
+        try {
+            history.rollback(v1);
+            fail("Versions of the previous owner must be discarded");
+        } catch(IllegalArgumentException ignored) {}
+        assertEquals(2, c2.intVar);
+    }
+
+    /**
+     * Test that the template is shared among instances of a class
+     */
+    public void testTemplate() {
+        ConfigTemplate tpl = ConfigTemplate.of(PooledComponent.class);
+        assertSame(tpl, ConfigTemplate.of(PooledComponent.class));
+        assertEquals(2, tpl.getSlots().size());
+        assertEquals("A label", tpl.getSlot("strVar").getLabel());
+        assertNull(tpl.getSlot("notCfgVar"));
+    }
+
+    /**
+     * Test that a configuration cannot be rebound to another class
+     */
+    public void testRebindOtherClass() {
+        PooledComponent c1 = new PooledComponent(pool, 1);
+        try {
+            ((XmlConfigFile) c1.getConfiguration()).rebind(
+                    () -> c1.getConfiguration());
+            fail("Rebinding to another class must fail");
+        } catch(IllegalArgumentException ignored) {}
+    }
+
+    /**
+     * Test that a pooled configuration allocates much less than a new one
+     */
+    public void testAllocation() {
+        if(!Benchmarks.canMeasureAllocations()) return;
+
+        ConfigurationPoolBenchmark.Component c =
+                new ConfigurationPoolBenchmark.Component();
+        double fresh = Benchmarks.bytesPerRun(2000,
+                () -> new XmlConfigFile(c, CFG_PATH));
+        double pooled = Benchmarks.bytesPerRun(2000,
+                () -> pool.release(pool.acquire(c)));
+        assertTrue(fresh + " bytes for a new configuration, " + pooled +
+                " for a pooled one", pooled * 4 < fresh);
+    }
+
+    @SuppressWarnings("unused")
+    private static class PooledComponent implements Configurable<ConfigFile> {
+        @Config public int intVar;
+        @Config("A label") public String strVar = "Hello";
+        public int notCfgVar = -1;
+
+        private final ConfigurationPool<XmlConfigFile> pool;
+        private final XmlConfigFile cfg;
+
+        public PooledComponent(ConfigurationPool<XmlConfigFile> pool, int v) {
+            this.intVar = v;
+            this.pool = pool;
+            this.cfg = pool.acquire(this);
+        }
+
+        @Override public ConfigFile getConfiguration() {
+            return cfg;
+        }
+
+        public void release() {
+            pool.release(cfg);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mystie.lightconfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup and iteration times of a {@link VariableIndex} compared with the
+ * {@link HashMap} which previously stored the variables of a
+ * {@link MapConfiguration}. Lookups are made with the interned keys, as with
+ * field names, and with equal copies of them, as with keys built at runtime.
+ *
+ * @author Samuel Longchamps
+ * @version 1.0
+ * @since 1.0
+ */
+public class VariableIndexBenchmark {
+    private static final int RUNS = 200_000;
+    private static long sink;
+
+    public static void main(String[] args) {
+        // First round only warms up
+        for(int round = 0; round < 2; ++round) {
+            System.out.println("Per variable      size  HashMap  " +
+                    "VariableIndex (ns)");
+            for(int size : new int[]{ 8, 32, 128 })
+                run(size);
+        }
+        if(sink == 42) System.out.println();
+    }
+
+    private static void run(int size) {
+        String[] keys = new String[size];
+        String[] copies = new String[size];
+        Map<String, ConfigVariable> map = new HashMap<>();
+        VariableIndex index = new VariableIndex();
+        for(int i = 0; i < size; ++i) {
+            keys[i] = ("var" + i).intern();
+            copies[i] = new String(keys[i]);
+            int v = i;
+            ConfigVariable cv = new ConfigVariable(Integer.class, keys[i],
+                    () -> v);
+            map.put(keys[i], cv);
+            index.put(keys[i], cv);
+        }
+
+        report("get(interned)", size,
+                () -> lookup(map, keys), () -> lookup(index, keys));
+        report("get(copy)", size,
+                () -> lookup(map, copies), () -> lookup(index, copies));
+        report("get(slot)", size, () -> lookup(map, keys), () -> {
+            for(int i = 0; i < size; ++i)
+                sink += index.get(i).getLabel().length();
+        });
+        report("values()", size, () -> {
+            for(ConfigVariable cv : map.values())
+                sink += cv.getLabel().length();
+        }, () -> {
+            for(ConfigVariable cv : index.values())
+                sink += cv.getLabel().length();
+        });
+    }
+
+    private static void lookup(Map<String, ConfigVariable> map,
+                               String[] keys) {
+        for(String k : keys)
+            sink += map.get(k).getLabel().length();
+    }
+
+    private static void lookup(VariableIndex index, String[] keys) {
+        for(String k : keys)
+            sink += index.get(k).getLabel().length();
+    }
+
+    private static void report(String name, int size, Runnable map,
+                               Runnable index) {
+        int runs = RUNS * 8 / size;
+        System.out.println(String.format("%-15s %6d %8.2f %14.2f",
+                name, size, Benchmarks.nanosPerRun(runs, map) / size,
+                Benchmarks.nanosPerRun(runs, index) / size));
+    }
+}